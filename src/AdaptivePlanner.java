@@ -0,0 +1,466 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Chooses how to run allocateForDemand and cheapestPath from statistics of
+ * the network, and records every choice with its measured runtime.
+ * -
+ * Each call profiles the network in one pass (supplier and lane counts,
+ * out-degree spread, capacity and cost ranges, weakly connected components)
+ * and picks:
+ * - a flow strategy: {@link SimpleAllocator#allocateForDemand} on the whole
+ *   network, the same solver run on independent components in parallel, or
+ *   {@link OffHeapNetwork} when the object graph would not fit in the heap;
+ * - a path strategy: {@link SimpleAllocator#cheapestPath} (Dijkstra) or
+ *   {@link ParallelCheapestPaths} (delta-stepping);
+ * - a thread count for the parallel strategies.
+ * Augmenting paths never cross components, so the component strategy gives
+ * exactly the allocation of the whole-network solver. The off-heap solver
+ * finds a maximum flow of the same value but may split it differently
+ * between lanes.
+ * -
+ * Every call adds a {@link Decision} (profile, choice, threads, runtime) to a
+ * bounded history and passes it to an optional listener, so the thresholds
+ * below can be tuned from production telemetry.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AdaptivePlanner implements AutoCloseable {
+    /** Lanes per thread below which another thread does not pay for itself. */
+    private static final int LANES_PER_THREAD = 1 << 12;
+    /** Lanes below which Dijkstra beats delta-stepping. */
+    private static final int DELTA_STEPPING_LANES = 1 << 16;
+    /** Degree skew (max / mean out-degree) above which hub suppliers serialize delta-stepping. */
+    private static final double DELTA_STEPPING_MAX_SKEW = 64;
+    /** Cost range (max / min positive cost) above which delta-stepping needs too many buckets. */
+    private static final double DELTA_STEPPING_MAX_COST_RANGE = 1e6;
+    /** Share of the lanes in the largest component above which splitting by component is not worth it. */
+    private static final double COMPONENT_MAX_SHARE = 0.9;
+    /** Rough heap bytes per lane and per supplier of the SimpleAllocator object graph. */
+    private static final long HEAP_BYTES_PER_LANE = 160, HEAP_BYTES_PER_SUPPLIER = 96;
+
+    /** Ways to run allocateForDemand. */
+    public enum FlowStrategy { EDMONDS_KARP, COMPONENTS, OFF_HEAP }
+
+    /** Ways to run cheapestPath. */
+    public enum PathStrategy { DIJKSTRA, DELTA_STEPPING }
+
+    /**
+     * Statistics of a network, gathered in one pass.
+     */
+    public static final class Profile {
+        private final int suppliers, lanes, components, largestComponentLanes;
+        private final int maxOutDegree;
+        private final double degreeSkew;
+        private final int minCapacity, maxCapacity, minCost, maxCost, minPositiveCost;
+
+        private Profile(int suppliers, int lanes, int components, int largestComponentLanes, int maxOutDegree,
+                        int minCapacity, int maxCapacity, int minCost, int maxCost, int minPositiveCost) {
+            this.suppliers = suppliers;
+            this.lanes = lanes;
+            this.components = components;
+            this.largestComponentLanes = largestComponentLanes;
+            this.maxOutDegree = maxOutDegree;
+            this.degreeSkew = lanes == 0 ? 0 : maxOutDegree / ((double) lanes / suppliers);
+            this.minCapacity = minCapacity;
+            this.maxCapacity = maxCapacity;
+            this.minCost = minCost;
+            this.maxCost = maxCost;
+            this.minPositiveCost = minPositiveCost;
+        }
+
+        /** @return number of suppliers, including transporter endpoints missing from the supplier collection */
+        public int suppliers() { return suppliers; }
+
+        /** @return number of transporters */
+        public int lanes() { return lanes; }
+
+        /** @return number of weakly connected components that contain at least one lane */
+        public int components() { return components; }
+
+        /** @return lanes in the largest component */
+        public int largestComponentLanes() { return largestComponentLanes; }
+
+        /** @return largest out-degree of a supplier */
+        public int maxOutDegree() { return maxOutDegree; }
+
+        /** @return largest out-degree divided by the mean out-degree (0 without lanes) */
+        public double degreeSkew() { return degreeSkew; }
+
+        /** @return ratio of the largest to the smallest positive lane capacity (1 without lanes) */
+        public double capacityRange() { return maxCapacity <= 0 ? 1 : (double) maxCapacity / Math.max(1, minCapacity); }
+
+        /** @return ratio of the largest to the smallest positive lane cost (1 without lanes) */
+        public double costRange() { return maxCost <= 0 ? 1 : (double) maxCost / Math.max(1, minPositiveCost); }
+
+        /** @return true if some lane has a negative cost */
+        public boolean negativeCosts() { return minCost < 0; }
+
+        @Override
+        public String toString() {
+            return String.format("suppliers=%d lanes=%d components=%d largest=%d maxDegree=%d skew=%.1f"
+                            + " capacity=[%d,%d] cost=[%d,%d]", suppliers, lanes, components,
+                    largestComponentLanes, maxOutDegree, degreeSkew, minCapacity, maxCapacity, minCost, maxCost);
+        }
+    }
+
+    /**
+     * One planner decision and how long the chosen strategy took.
+     */
+    public static final class Decision {
+        private final String operation;
+        private final Profile profile;
+        private final String strategy;
+        private final int threads;
+        private final long nanos;
+        private final String fallback;
+
+        private Decision(String operation, Profile profile, String strategy, int threads, long nanos,
+                         String fallback) {
+            this.operation = operation;
+            this.profile = profile;
+            this.strategy = strategy;
+            this.threads = threads;
+            this.nanos = nanos;
+            this.fallback = fallback;
+        }
+
+        /** @return "allocateForDemand" or "cheapestPath" */
+        public String operation() { return operation; }
+
+        /** @return the profile the decision was based on */
+        public Profile profile() { return profile; }
+
+        /** @return name of the FlowStrategy or PathStrategy that produced the result */
+        public String strategy() { return strategy; }
+
+        /** @return why the first choice was abandoned for strategy(), or null if it was not */
+        public String fallback() { return fallback; }
+
+        /** @return threads used */
+        public int threads() { return threads; }
+
+        /** @return runtime of the chosen strategy (profiling excluded), in nanoseconds */
+        public long nanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%s strategy=%s threads=%d ms=%.3f %s%s",
+                    operation, strategy, threads, nanos / 1e6, profile,
+                    fallback == null ? "" : " fallback=" + fallback);
+        }
+    }
+
+    private final int maxThreads;
+    private final int historySize;
+    private final Consumer<Decision> listener;
+    private final ArrayDeque<Decision> history = new ArrayDeque<>();
+    private final Map<Integer, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a planner that may use every core and keeps the last 1000 decisions.
+     */
+    public AdaptivePlanner() {
+        this(Runtime.getRuntime().availableProcessors(), 1000, null);
+    }
+
+    /**
+     * Construct a planner.
+     * @param maxThreads most threads any strategy may use (at least 1)
+     * @param historySize number of recent decisions kept
+     * @param listener called with every decision, or null
+     */
+    public AdaptivePlanner(int maxThreads, int historySize, Consumer<Decision> listener) {
+        if (maxThreads < 1) throw new IllegalArgumentException("maxThreads must be at least 1");
+        this.maxThreads = maxThreads;
+        this.historySize = historySize;
+        this.listener = listener;
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * Profile the network, pick a flow strategy, and allocate for demand.
+     * @param suppliers the suppliers
+     * @param transporters the transporters; their allocations are set
+     * @return transporters with an allocation, as {@link SimpleAllocator#allocateForDemand}
+     */
+    public Collection<Transporter> allocateForDemand(Collection<Supplier> suppliers,
+                                                     Collection<Transporter> transporters) {
+        if (suppliers == null || transporters == null) return new HashSet<>();
+        Network network = new Network(suppliers, transporters);
+        FlowStrategy strategy = chooseFlow(network.profile);
+        return allocateForDemand(network, strategy, flowThreads(network.profile, strategy));
+    }
+
+    /**
+     * Allocate for demand with a given strategy, bypassing the heuristics
+     * (for example to compare strategies); the run is recorded as usual.
+     * @param suppliers the suppliers
+     * @param transporters the transporters; their allocations are set
+     * @param strategy the flow strategy
+     * @param threads threads for the COMPONENTS strategy
+     * @return transporters with an allocation
+     */
+    public Collection<Transporter> allocateForDemand(Collection<Supplier> suppliers,
+                                                     Collection<Transporter> transporters,
+                                                     FlowStrategy strategy, int threads) {
+        if (suppliers == null || transporters == null) return new HashSet<>();
+        return allocateForDemand(new Network(suppliers, transporters), strategy, Math.max(1, threads));
+    }
+
+    /**
+     * Profile the network, pick a path strategy, and find the cheapest path.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param source the starting supplier
+     * @param destination the final supplier
+     * @return transporters of a cheapest path; empty if destination is unreachable
+     */
+    public Collection<Transporter> cheapestPath(Collection<Supplier> suppliers,
+                                                Collection<Transporter> transporters,
+                                                Supplier source,
+                                                Supplier destination) {
+        Profile profile = new Network(suppliers, transporters).profile;
+        PathStrategy strategy = choosePath(profile);
+        int threads = strategy == PathStrategy.DELTA_STEPPING ? threadsFor(profile.lanes) : 1;
+        long start = System.nanoTime();
+        Collection<Transporter> path = null;
+        String fallback = null;
+        if (strategy == PathStrategy.DELTA_STEPPING) {
+            try {
+                path = ParallelCheapestPaths.from(suppliers, transporters, source, pool(threads), 0)
+                        .path(destination);
+            } catch (IllegalArgumentException e) {
+                // The profile missed something delta-stepping rejects; Dijkstra accepts any network
+                fallback = PathStrategy.DELTA_STEPPING + ": " + e.getMessage();
+                strategy = PathStrategy.DIJKSTRA;
+                threads = 1;
+            }
+        }
+        if (path == null) path = SimpleAllocator.cheapestPath(suppliers, transporters, source, destination);
+        record(new Decision("cheapestPath", profile, strategy.name(), threads, System.nanoTime() - start,
+                fallback));
+        return path;
+    }
+
+    /**
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @return the profile of the network
+     */
+    public static Profile profile(Collection<Supplier> suppliers, Collection<Transporter> transporters) {
+        return new Network(suppliers, transporters).profile;
+    }
+
+    /**
+     * @param profile a network profile
+     * @return the flow strategy the planner would use
+     */
+    public FlowStrategy chooseFlow(Profile profile) {
+        long heapBytes = profile.lanes * HEAP_BYTES_PER_LANE + profile.suppliers * HEAP_BYTES_PER_SUPPLIER;
+        if (heapBytes > Runtime.getRuntime().maxMemory() / 2) return FlowStrategy.OFF_HEAP;
+        if (maxThreads > 1 && profile.components > 1 && profile.lanes >= 2 * LANES_PER_THREAD
+                && profile.largestComponentLanes < COMPONENT_MAX_SHARE * profile.lanes) {
+            return FlowStrategy.COMPONENTS;
+        }
+        return FlowStrategy.EDMONDS_KARP;
+    }
+
+    /**
+     * Delta-stepping is only chosen for inputs {@link ParallelCheapestPaths}
+     * accepts (no negative lane costs).
+     * @param profile a network profile
+     * @return the path strategy the planner would use
+     */
+    public PathStrategy choosePath(Profile profile) {
+        if (maxThreads > 1 && !profile.negativeCosts() && profile.lanes >= DELTA_STEPPING_LANES
+                && profile.degreeSkew() <= DELTA_STEPPING_MAX_SKEW
+                && profile.costRange() <= DELTA_STEPPING_MAX_COST_RANGE) {
+            return PathStrategy.DELTA_STEPPING;
+        }
+        return PathStrategy.DIJKSTRA;
+    }
+
+    /**
+     * @return the most recent decisions, oldest first
+     */
+    public synchronized List<Decision> history() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Shut down the thread pools the planner created.
+     */
+    @Override
+    public void close() {
+        for (ForkJoinPool pool : pools.values()) pool.shutdown();
+        pools.clear();
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private Collection<Transporter> allocateForDemand(Network network, FlowStrategy strategy, int threads) {
+        long start = System.nanoTime();
+        Collection<Transporter> allocation;
+        switch (strategy) {
+            case COMPONENTS:
+                allocation = byComponent(network, threads);
+                break;
+            case OFF_HEAP:
+                allocation = offHeap(network);
+                threads = 1;
+                break;
+            default:
+                allocation = SimpleAllocator.allocateForDemand(network.suppliers, network.transporters);
+                threads = 1;
+        }
+        record(new Decision("allocateForDemand", network.profile, strategy.name(), threads,
+                System.nanoTime() - start, null));
+        return allocation;
+    }
+
+    private int flowThreads(Profile profile, FlowStrategy strategy) {
+        return strategy == FlowStrategy.COMPONENTS ? Math.min(threadsFor(profile.lanes), profile.components) : 1;
+    }
+
+    private int threadsFor(int lanes) {
+        return (int) Math.max(1, Math.min(maxThreads, (long) lanes / LANES_PER_THREAD));
+    }
+
+    // Solve each component with SimpleAllocator; suppliers and lanes keep their relative order.
+    private Collection<Transporter> byComponent(Network network, int threads) {
+        int[] label = network.componentLabel;
+        List<List<Supplier>> suppliers = new ArrayList<>();
+        List<List<Transporter>> lanes = new ArrayList<>();
+        for (int c = 0; c < network.profile.components; c++) {
+            suppliers.add(new ArrayList<>());
+            lanes.add(new ArrayList<>());
+        }
+        for (Supplier supplier : network.suppliers) {
+            int c = label[network.registry.id(supplier)];
+            if (c >= 0) suppliers.get(c).add(supplier);
+        }
+        for (Transporter transporter : network.transporters) {
+            lanes.get(label[network.registry.id(transporter.from())]).add(transporter);
+        }
+        List<Collection<Transporter>> results = pool(threads).submit(() ->
+                IntStream.range(0, suppliers.size()).parallel()
+                        .mapToObj(c -> SimpleAllocator.allocateForDemand(suppliers.get(c), lanes.get(c)))
+                        .collect(Collectors.toList())).join();
+        Collection<Transporter> allocation = new HashSet<>();
+        for (Collection<Transporter> result : results) allocation.addAll(result);
+        return allocation;
+    }
+
+    private Collection<Transporter> offHeap(Network network) {
+        SupplierRegistry registry = network.registry;
+        Transporter[] lanes = network.transporters.toArray(new Transporter[0]);
+        try {
+            OffHeapNetwork.Builder builder = OffHeapNetwork.builder(registry.size(), lanes.length, null);
+            // Endpoints missing from the supplier collection get no super arcs, as in SimpleAllocator
+            for (int id = 0; id < network.supplierCount; id++) {
+                builder.setSupplier(id, registry.demand(id), registry.inventory(id));
+            }
+            for (Transporter lane : lanes) {
+                builder.addLane(registry.id(lane.from()), registry.id(lane.to()),
+                        lane.maxCapacity(), lane.costPerUnit());
+            }
+            try (OffHeapNetwork offHeap = builder.build()) {
+                offHeap.allocateForDemand();
+                for (int l = 0; l < lanes.length; l++) lanes[l].setAllocation(offHeap.allocation(l));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new HashSet<>(Arrays.asList(lanes));
+    }
+
+    private ForkJoinPool pool(int threads) {
+        return pools.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    private void record(Decision decision) {
+        synchronized (this) {
+            history.addLast(decision);
+            while (history.size() > historySize) history.removeFirst();
+        }
+        if (listener != null) listener.accept(decision);
+    }
+
+    // Interned network with its profile and component labels (-1 for suppliers without lanes).
+    private static final class Network {
+        private final Collection<Supplier> suppliers;
+        private final Collection<Transporter> transporters;
+        private final SupplierRegistry registry;
+        private final int supplierCount;
+        private final int[] componentLabel;
+        private final Profile profile;
+
+        private Network(Collection<Supplier> suppliers, Collection<Transporter> transporters) {
+            this.suppliers = suppliers;
+            this.transporters = transporters;
+            registry = SupplierRegistry.of(suppliers);
+            supplierCount = registry.size();
+            int minCap = Integer.MAX_VALUE, maxCap = 0, minCost = Integer.MAX_VALUE, maxCost = 0;
+            int minPositiveCost = Integer.MAX_VALUE;
+            int[] parent = new int[registry.size() + 2 * transporters.size()];
+            int[] degree = new int[parent.length];
+            for (int v = 0; v < parent.length; v++) parent[v] = v;
+            for (Transporter t : transporters) {
+                int from = registry.intern(t.from());
+                int to = registry.intern(t.to());
+                degree[from]++;
+                parent[find(parent, from)] = find(parent, to);
+                if (t.maxCapacity() > 0) minCap = Math.min(minCap, t.maxCapacity());
+                maxCap = Math.max(maxCap, t.maxCapacity());
+                minCost = Math.min(minCost, t.costPerUnit());
+                maxCost = Math.max(maxCost, t.costPerUnit());
+                if (t.costPerUnit() > 0) minPositiveCost = Math.min(minPositiveCost, t.costPerUnit());
+            }
+            int n = registry.size();
+            int maxDegree = 0;
+            for (int v = 0; v < n; v++) maxDegree = Math.max(maxDegree, degree[v]);
+
+            // Number the components that hold a lane, and count their lanes
+            componentLabel = new int[n];
+            Arrays.fill(componentLabel, -1);
+            int[] rootLabel = new int[n];
+            Arrays.fill(rootLabel, -1);
+            List<Integer> componentLanes = new ArrayList<>();
+            for (Transporter t : transporters) {
+                int root = find(parent, registry.id(t.from()));
+                if (rootLabel[root] < 0) {
+                    rootLabel[root] = componentLanes.size();
+                    componentLanes.add(0);
+                }
+                componentLanes.set(rootLabel[root], componentLanes.get(rootLabel[root]) + 1);
+            }
+            int largest = 0;
+            for (int lanes : componentLanes) largest = Math.max(largest, lanes);
+            for (int v = 0; v < n; v++) componentLabel[v] = rootLabel[find(parent, v)];
+
+            profile = new Profile(n, transporters.size(), componentLanes.size(), largest, maxDegree,
+                    minCap == Integer.MAX_VALUE ? 0 : minCap, maxCap,
+                    minCost == Integer.MAX_VALUE ? 0 : minCost, maxCost,
+                    minPositiveCost == Integer.MAX_VALUE ? 0 : minPositiveCost);
+        }
+
+        // Union-find root with path halving.
+        private static int find(int[] parent, int v) {
+            while (parent[v] != v) {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
@@ -0,0 +1,323 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ingestion pipeline that turns a stream of capacity, rate and demand changes
+ * into periodic {@link SimpleAllocator#allocateForDemand} re-solves.
+ * -
+ * Producers post change events on a lock-free queue from any thread. A single
+ * solver thread drains the queue when either batchSize events are pending or
+ * the oldest pending event is maxLatency old, coalesces the batch (only the
+ * last value of each field of each lane or supplier is applied), re-solves,
+ * and publishes an immutable, versioned {@link Snapshot}. Readers call
+ * {@link #snapshot()} without locking and keep a consistent view while the
+ * next solve runs.
+ * -
+ * Transporters are immutable apart from their allocation, so the pipeline
+ * keeps its own copy of every lane and replaces a copy when its capacity or
+ * cost changes. Supplier demand and inventory live in a {@link SupplierRegistry}.
+ * Events name lanes and suppliers by the objects the pipeline was built with;
+ * the caller's objects are never modified.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AllocationPipeline implements AutoCloseable {
+    private static final int LANE_CAPACITY = 0, LANE_COST = 1, DEMAND = 2, INVENTORY = 3;
+
+    /**
+     * Immutable result of one solve: the allocation of every lane and its totals.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final long events;
+        private final long solveNanos;
+        private final Map<Transporter, Integer> laneIndex;
+        private final int[] allocation;
+        private final long totalCost;
+        private final long totalShipped;
+
+        private Snapshot(long version, long events, long solveNanos, Map<Transporter, Integer> laneIndex,
+                         int[] allocation, long totalCost, long totalShipped) {
+            this.version = version;
+            this.events = events;
+            this.solveNanos = solveNanos;
+            this.laneIndex = laneIndex;
+            this.allocation = allocation;
+            this.totalCost = totalCost;
+            this.totalShipped = totalShipped;
+        }
+
+        /**
+         * @return publication number; 0 for the initial solve, then increasing by 1
+         */
+        public long version() { return version; }
+
+        /**
+         * @return total number of events (before coalescing) reflected in this snapshot
+         */
+        public long events() { return events; }
+
+        /**
+         * @return time spent in the solve that produced this snapshot, in nanoseconds
+         */
+        public long solveNanos() { return solveNanos; }
+
+        /**
+         * @param transporter a lane the pipeline was built with
+         * @return the units allocated to the lane
+         */
+        public int allocation(Transporter transporter) {
+            Integer l = laneIndex.get(transporter);
+            if (l == null) throw new IllegalArgumentException("Unknown transporter: " + transporter.name());
+            return allocation[l];
+        }
+
+        /**
+         * @return sum of allocation * costPerUnit at the lane costs of this snapshot
+         */
+        public long totalCost() { return totalCost; }
+
+        /**
+         * @return sum of the allocations
+         */
+        public long totalShipped() { return totalShipped; }
+    }
+
+    // A change posted by a producer; target is a lane index or supplier id.
+    private static final class Event {
+        private final int kind;
+        private final int target;
+        private final int value;
+        private final long postedNanos;
+
+        private Event(int kind, int target, int value) {
+            this.kind = kind;
+            this.target = target;
+            this.value = value;
+            this.postedNanos = System.nanoTime();
+        }
+    }
+
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Snapshot latest;
+    private volatile RuntimeException lastFailure;
+    private volatile boolean running = true;
+    private final Thread solver;
+
+    // Network, read-only after construction apart from the solver thread's updates
+    private final Map<Transporter, Integer> laneIndex;
+    private final List<Transporter> lanes;
+    private final SupplierRegistry registry;
+
+    // Solver-thread coalescing state, by lane index
+    private final int[] newCapacity, newCost, stamp;
+    private final int[] touched;
+    private int batch;
+    private long applied;
+
+    /**
+     * Build a pipeline, solve the initial network, and start the solver thread.
+     * @param suppliers the suppliers
+     * @param transporters the transporters (lanes)
+     * @param batchSize re-solve once this many events are pending (at least 1)
+     * @param maxLatency re-solve once the oldest pending event is this old
+     * @param unit unit of maxLatency
+     */
+    public AllocationPipeline(Collection<Supplier> suppliers, Collection<Transporter> transporters,
+                              int batchSize, long maxLatency, TimeUnit unit) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be at least 1");
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = unit.toNanos(maxLatency);
+        this.registry = SupplierRegistry.of(suppliers);
+        Map<Transporter, Integer> index = new IdentityHashMap<>();
+        this.lanes = new ArrayList<>(transporters.size());
+        for (Transporter t : transporters) {
+            if (index.putIfAbsent(t, lanes.size()) != null) {
+                throw new IllegalArgumentException("Duplicate transporter: " + t.name());
+            }
+            registry.intern(t.from());
+            registry.intern(t.to());
+            lanes.add(new Transporter(t.name(), t.from(), t.to(), t.costPerUnit(), t.maxCapacity(), 0));
+        }
+        this.laneIndex = Collections.unmodifiableMap(index);
+        newCapacity = new int[lanes.size()];
+        newCost = new int[lanes.size()];
+        stamp = new int[lanes.size()];
+        touched = new int[lanes.size()];
+
+        latest = solve(0);
+        solver = new Thread(this::run, "allocation-pipeline");
+        solver.setDaemon(true);
+        solver.start();
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * Post a new maximum capacity for a lane.
+     * @param transporter the lane
+     * @param maxCapacity its new maximum capacity
+     */
+    public void capacityChanged(Transporter transporter, int maxCapacity) {
+        post(new Event(LANE_CAPACITY, lane(transporter), maxCapacity));
+    }
+
+    /**
+     * Post a new rate (cost per unit) for a lane.
+     * @param transporter the lane
+     * @param costPerUnit its new cost per unit
+     */
+    public void costChanged(Transporter transporter, int costPerUnit) {
+        post(new Event(LANE_COST, lane(transporter), costPerUnit));
+    }
+
+    /**
+     * Post a new demand for a supplier.
+     * @param supplier the supplier
+     * @param demand its new demand (negative for a manufacturer)
+     */
+    public void demandChanged(Supplier supplier, int demand) {
+        post(new Event(DEMAND, supplier(supplier), demand));
+    }
+
+    /**
+     * Post a new inventory on hand for a supplier.
+     * @param supplier the supplier
+     * @param inventory its new inventory
+     */
+    public void inventoryChanged(Supplier supplier, int inventory) {
+        post(new Event(INVENTORY, supplier(supplier), inventory));
+    }
+
+    /**
+     * @return the most recently published allocation; never null
+     */
+    public Snapshot snapshot() { return latest; }
+
+    /**
+     * @return number of posted events not yet taken by the solver
+     */
+    public long pending() { return pending.get(); }
+
+    /**
+     * @return the exception thrown by the most recent failed solve, or null;
+     *         a failed solve keeps the previous snapshot published
+     */
+    public RuntimeException lastFailure() { return lastFailure; }
+
+    /**
+     * Stop the solver thread. Events still pending are discarded.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(solver);
+        try {
+            solver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private int lane(Transporter transporter) {
+        Integer l = laneIndex.get(transporter);
+        if (l == null) throw new IllegalArgumentException("Unknown transporter: " + transporter.name());
+        return l;
+    }
+
+    private int supplier(Supplier supplier) {
+        int id = registry.id(supplier);
+        if (id < 0) throw new IllegalArgumentException("Unknown supplier: " + supplier.name());
+        return id;
+    }
+
+    // Wake the solver on the first event of a batch (to start its latency clock) and when the batch is full.
+    private void post(Event event) {
+        if (!running) throw new IllegalStateException("Pipeline is closed");
+        events.add(event);
+        long count = pending.incrementAndGet();
+        if (count == 1 || count == batchSize) LockSupport.unpark(solver);
+    }
+
+    private void run() {
+        while (running) {
+            Event oldest = events.peek();
+            if (oldest == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            long wait = oldest.postedNanos + maxLatencyNanos - System.nanoTime();
+            if (pending.get() < batchSize && wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            drain();
+            try {
+                latest = solve(latest.version + 1);
+                lastFailure = null;
+            } catch (RuntimeException e) {
+                lastFailure = e;
+            }
+        }
+    }
+
+    // Take every queued event, keeping only the last value per lane field; supplier values go straight to the registry.
+    private void drain() {
+        batch++;
+        int lanesTouched = 0;
+        int drained = 0;
+        for (Event event; (event = events.poll()) != null; drained++) {
+            if (event.kind == DEMAND) {
+                registry.setDemand(event.target, event.value);
+            } else if (event.kind == INVENTORY) {
+                registry.setInventory(event.target, event.value);
+            } else {
+                int l = event.target;
+                if (stamp[l] != batch) {
+                    stamp[l] = batch;
+                    newCapacity[l] = lanes.get(l).maxCapacity();
+                    newCost[l] = lanes.get(l).costPerUnit();
+                    touched[lanesTouched++] = l;
+                }
+                if (event.kind == LANE_CAPACITY) newCapacity[l] = event.value;
+                else newCost[l] = event.value;
+            }
+        }
+        pending.addAndGet(-drained);
+        applied += drained;
+
+        // Replace each changed lane once, however many events it received
+        for (int i = 0; i < lanesTouched; i++) {
+            int l = touched[i];
+            Transporter t = lanes.get(l);
+            if (t.maxCapacity() != newCapacity[l] || t.costPerUnit() != newCost[l]) {
+                lanes.set(l, new Transporter(t.name(), t.from(), t.to(), newCost[l], newCapacity[l], 0));
+            }
+        }
+    }
+
+    private Snapshot solve(long version) {
+        long start = System.nanoTime();
+        SimpleAllocator.allocateForDemand(registry, lanes);
+        int[] allocation = new int[lanes.size()];
+        long totalCost = 0, totalShipped = 0;
+        for (int l = 0; l < allocation.length; l++) {
+            Transporter t = lanes.get(l);
+            allocation[l] = t.allocation();
+            totalShipped += allocation[l];
+            totalCost += (long) allocation[l] * t.costPerUnit();
+        }
+        return new Snapshot(version, applied, System.nanoTime() - start,
+                laneIndex, allocation, totalCost, totalShipped);
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
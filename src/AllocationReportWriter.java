@@ -0,0 +1,357 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streaming export of transporter allocations as text, CSV, or a compact
+ * binary form, written straight to a {@link Writer} or
+ * {@link WritableByteChannel}.
+ * -
+ * Unlike {@link SimpleAllocator#displayAllocations}, nothing is built per
+ * transporter: names and numbers are copied into one reusable char or byte
+ * buffer (integers are formatted by hand) that is handed to the destination
+ * whenever it fills, so memory use does not depend on the number of lanes and
+ * the first bytes are written right away. Text sent to a channel is UTF-8.
+ * -
+ * Formats, one record per transporter:
+ * - text: "name: allocation $costPerUnit" and a newline, as displayAllocations
+ * - CSV: a header line, then name,from,to,allocation,costPerUnit,maxCapacity;
+ *   names containing a comma, quote or line break are quoted
+ * - binary: the magic bytes "ALOC" and a version byte (1), then per record
+ *   varint(UTF-8 name length + 1), the name, and zigzag varints of allocation,
+ *   costPerUnit and maxCapacity; a varint 0 ends the records and is followed
+ *   by varint(record count)
+ * -
+ * A writer reuses its buffers across calls and must not be shared between threads.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AllocationReportWriter {
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final String CSV_HEADER = "name,from,to,allocation,costPerUnit,maxCapacity\n";
+    private static final byte[] MAGIC = {'A', 'L', 'O', 'C', 1};
+
+    private final boolean nonZeroOnly;
+    private final char[] chars = new char[BUFFER_SIZE];
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    // Scratch for formatting one integer, most significant digit last
+    private final char[] digits = new char[11];
+
+    // Destination of the current call (exactly one is set)
+    private Writer writer;
+    private WritableByteChannel channel;
+    private int charCount;
+    private char highSurrogate;
+
+    /**
+     * Construct a writer that reports every transporter.
+     */
+    public AllocationReportWriter() {
+        this(false);
+    }
+
+    /**
+     * Construct a writer.
+     * @param nonZeroOnly if true, transporters with zero allocation are skipped
+     */
+    public AllocationReportWriter(boolean nonZeroOnly) {
+        this.nonZeroOnly = nonZeroOnly;
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * Write one "name: allocation $cost" line per transporter.
+     * @param transporters the transporters
+     * @param out the destination; flushed, not closed
+     * @return the number of transporters written
+     * @throws IOException if the destination fails
+     */
+    public long writeText(Iterable<Transporter> transporters, Writer out) throws IOException {
+        writer = out;
+        try {
+            return text(transporters);
+        } finally {
+            writer = null;
+        }
+    }
+
+    /**
+     * Write one "name: allocation $cost" line per transporter, UTF-8 encoded.
+     * @param transporters the transporters
+     * @param out the destination; not closed
+     * @return the number of transporters written
+     * @throws IOException if the destination fails
+     */
+    public long writeText(Iterable<Transporter> transporters, WritableByteChannel out) throws IOException {
+        channel = out;
+        try {
+            return text(transporters);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Write a CSV header and one row per transporter.
+     * @param transporters the transporters
+     * @param out the destination; flushed, not closed
+     * @return the number of transporters written
+     * @throws IOException if the destination fails
+     */
+    public long writeCsv(Iterable<Transporter> transporters, Writer out) throws IOException {
+        writer = out;
+        try {
+            return csv(transporters);
+        } finally {
+            writer = null;
+        }
+    }
+
+    /**
+     * Write a CSV header and one row per transporter, UTF-8 encoded.
+     * @param transporters the transporters
+     * @param out the destination; not closed
+     * @return the number of transporters written
+     * @throws IOException if the destination fails
+     */
+    public long writeCsv(Iterable<Transporter> transporters, WritableByteChannel out) throws IOException {
+        channel = out;
+        try {
+            return csv(transporters);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Write the binary form described in the class comment.
+     * @param transporters the transporters
+     * @param out the destination; not closed
+     * @return the number of transporters written
+     * @throws IOException if the destination fails
+     */
+    public long writeBinary(Iterable<Transporter> transporters, WritableByteChannel out) throws IOException {
+        channel = out;
+        try {
+            start();
+            bytes.put(MAGIC);
+            long count = 0;
+            for (Transporter t : transporters) {
+                if (nonZeroOnly && t.allocation() == 0) continue;
+                String name = t.name();
+                putVarint(utf8Length(name) + 1);
+                putString(name);
+                endUtf8();
+                putVarint(zigzag(t.allocation()));
+                putVarint(zigzag(t.costPerUnit()));
+                putVarint(zigzag(t.maxCapacity()));
+                count++;
+            }
+            putVarint(0);
+            putVarint(count);
+            drainBytes();
+            return count;
+        } finally {
+            channel = null;
+        }
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private long text(Iterable<Transporter> transporters) throws IOException {
+        start();
+        long count = 0;
+        for (Transporter t : transporters) {
+            if (nonZeroOnly && t.allocation() == 0) continue;
+            putString(t.name());
+            putChar(':');
+            putChar(' ');
+            putInt(t.allocation());
+            putChar(' ');
+            putChar('$');
+            putInt(t.costPerUnit());
+            putChar('\n');
+            count++;
+        }
+        finish();
+        return count;
+    }
+
+    private long csv(Iterable<Transporter> transporters) throws IOException {
+        start();
+        putString(CSV_HEADER);
+        long count = 0;
+        for (Transporter t : transporters) {
+            if (nonZeroOnly && t.allocation() == 0) continue;
+            putCsvField(t.name());
+            putChar(',');
+            putCsvField(t.from() == null ? "" : t.from().name());
+            putChar(',');
+            putCsvField(t.to() == null ? "" : t.to().name());
+            putChar(',');
+            putInt(t.allocation());
+            putChar(',');
+            putInt(t.costPerUnit());
+            putChar(',');
+            putInt(t.maxCapacity());
+            putChar('\n');
+            count++;
+        }
+        finish();
+        return count;
+    }
+
+    private void start() {
+        charCount = 0;
+        highSurrogate = 0;
+        bytes.clear();
+    }
+
+    private void finish() throws IOException {
+        if (writer != null) {
+            drainChars();
+            writer.flush();
+        } else {
+            endUtf8();
+            drainBytes();
+        }
+    }
+
+    private void putCsvField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            putString(value);
+            return;
+        }
+        putChar('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') putChar('"');
+            putChar(c);
+        }
+        putChar('"');
+    }
+
+    private void putString(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) putChar(value.charAt(i));
+    }
+
+    // Chars go to the char buffer for a Writer, otherwise UTF-8 encoded into the byte buffer.
+    private void putChar(char c) throws IOException {
+        if (writer != null) {
+            if (charCount == chars.length) drainChars();
+            chars[charCount++] = c;
+        } else {
+            putUtf8(c);
+        }
+    }
+
+    // Decimal digits without allocating; Integer.MIN_VALUE is handled by working on the negative value.
+    private void putInt(int value) throws IOException {
+        int n = 0;
+        int v = value < 0 ? value : -value;
+        do {
+            digits[n++] = (char) ('0' - v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (value < 0) putChar('-');
+        while (n > 0) putChar(digits[--n]);
+    }
+
+    private void drainChars() throws IOException {
+        writer.write(chars, 0, charCount);
+        charCount = 0;
+    }
+
+    private void putByte(int b) throws IOException {
+        if (!bytes.hasRemaining()) drainBytes();
+        bytes.put((byte) b);
+    }
+
+    private void putVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        putByte((int) value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    // UTF-8 by hand so no byte[] is made per name; an unpaired surrogate is written as '?'.
+    private void putUtf8(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(high, c);
+                putByte(0xF0 | cp >> 18);
+                putByte(0x80 | cp >> 12 & 0x3F);
+                putByte(0x80 | cp >> 6 & 0x3F);
+                putByte(0x80 | cp & 0x3F);
+                return;
+            }
+            putByte('?');
+        }
+        if (c < 0x80) {
+            putByte(c);
+        } else if (c < 0x800) {
+            putByte(0xC0 | c >> 6);
+            putByte(0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isSurrogate(c)) {
+            putByte('?');
+        } else {
+            putByte(0xE0 | c >> 12);
+            putByte(0x80 | c >> 6 & 0x3F);
+            putByte(0x80 | c & 0x3F);
+        }
+    }
+
+    // Bytes putUtf8 writes for a whole string.
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // A high surrogate left at the end of a string has no pair.
+    private void endUtf8() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            putByte('?');
+        }
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
@@ -0,0 +1,176 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Totals of an allocation, computed in a single fused pass over the lanes.
+ * -
+ * All sums are kept in <code>long</code>, so totals of large networks do not
+ * silently overflow the way the <code>int</code> utilities in
+ * {@link SimpleAllocator} can. The summary covers total cost, units shipped,
+ * unmet demand per supplier, and a histogram of lane utilization
+ * (allocation / maxCapacity).
+ * -
+ * Lanes are given as parallel primitive arrays; large inputs are split into
+ * chunks that are aggregated on the common fork-join pool and then merged.
+ * Each chunk adds net inflow into its own per-supplier array, so no counter is
+ * shared however skewed the lanes are toward a few suppliers; there is one
+ * chunk per core, which bounds that memory at cores * suppliers longs.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AllocationSummary {
+    /**
+     * Number of utilization buckets: bucket 0 counts idle lanes, buckets 1..10
+     * count lanes loaded to (0%, 10%], (10%, 20%], ..., (90%, 100%].
+     */
+    public static final int UTILIZATION_BUCKETS = 11;
+
+    /** Lane count below which the kernel runs sequentially. */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final long totalCost;
+    private final long totalShipped;
+    private final long totalDemand;
+    private final long totalUnmet;
+    private final long[] unmetDemand;
+    private final long[] utilization;
+
+    private AllocationSummary(long totalCost, long totalShipped, long totalDemand,
+                              long[] unmetDemand, long[] utilization) {
+        this.totalCost = totalCost;
+        this.totalShipped = totalShipped;
+        this.totalDemand = totalDemand;
+        this.unmetDemand = unmetDemand;
+        this.utilization = utilization;
+        long unmet = 0;
+        for (long u : unmetDemand) unmet += u;
+        this.totalUnmet = unmet;
+    }
+
+    /**
+     * Summarize an allocation given as lane arrays.
+     * There are allocation.length lanes; lane i ships allocation[i] units from
+     * supplier from[i] to supplier to[i] at cost[i] per unit, and can carry at
+     * most capacity[i] units.
+     * The unmet demand of a supplier with positive demand is its demand less
+     * the net units it receives (inflow minus outflow).
+     * @param demand demand per supplier index
+     * @param from source supplier index of each lane
+     * @param to destination supplier index of each lane
+     * @param allocation units allocated to each lane
+     * @param cost cost per unit of each lane
+     * @param capacity maximum capacity of each lane
+     * @return the summary
+     */
+    public static AllocationSummary ofLanes(int[] demand, int[] from, int[] to,
+                                            int[] allocation, int[] cost, int[] capacity) {
+        int lanes = allocation.length;
+        int suppliers = demand.length;
+        Partial total;
+        long[] netInflow = new long[suppliers];
+        if (lanes < PARALLEL_THRESHOLD) {
+            total = new Partial().accumulate(from, to, allocation, cost, capacity, 0, lanes, netInflow);
+        } else {
+            // One chunk per core, each with its own net inflow; the arrays are summed per supplier afterwards
+            int chunks = Math.max(1, Math.min(lanes / (PARALLEL_THRESHOLD / 4),
+                    Runtime.getRuntime().availableProcessors()));
+            long[][] chunkInflow = new long[chunks][];
+            total = IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> new Partial().accumulate(from, to, allocation, cost, capacity,
+                            (int) ((long) lanes * c / chunks), (int) ((long) lanes * (c + 1) / chunks),
+                            chunkInflow[c] = new long[suppliers]))
+                    .reduce(Partial::merge)
+                    .orElseGet(Partial::new);
+            IntStream.range(0, suppliers).parallel().forEach(s -> {
+                long net = 0;
+                for (long[] inflow : chunkInflow) net += inflow[s];
+                netInflow[s] = net;
+            });
+        }
+
+        long totalDemand = 0;
+        long[] unmet = new long[suppliers];
+        for (int s = 0; s < suppliers; s++) {
+            if (demand[s] > 0) {
+                totalDemand += demand[s];
+                unmet[s] = Math.max(0, demand[s] - netInflow[s]);
+            }
+        }
+        return new AllocationSummary(total.cost, total.shipped, totalDemand, unmet, total.utilization);
+    }
+
+    /**
+     * @return total transportation cost (sum of allocation * costPerUnit)
+     */
+    public long totalCost() { return totalCost; }
+
+    /**
+     * @return total units shipped over all lanes
+     */
+    public long totalShipped() { return totalShipped; }
+
+    /**
+     * @return total positive demand of all suppliers
+     */
+    public long totalDemand() { return totalDemand; }
+
+    /**
+     * @return total unmet demand over all suppliers
+     */
+    public long totalUnmetDemand() { return totalUnmet; }
+
+    /**
+     * @param supplier supplier index, as used when building the summary
+     * @return unmet demand at that supplier
+     */
+    public long unmetDemand(int supplier) { return unmetDemand[supplier]; }
+
+    /**
+     * @return copy of the utilization histogram (see {@link #UTILIZATION_BUCKETS})
+     */
+    public long[] utilizationHistogram() { return Arrays.copyOf(utilization, utilization.length); }
+
+    @Override
+    public String toString() {
+        return String.format("cost=%d shipped=%d demand=%d unmet=%d utilization=%s",
+                totalCost, totalShipped, totalDemand, totalUnmet, Arrays.toString(utilization));
+    }
+
+    // Running totals of one chunk of lanes; net inflow goes to the chunk's own array.
+    private static final class Partial {
+        private long cost;
+        private long shipped;
+        private final long[] utilization = new long[UTILIZATION_BUCKETS];
+
+        private Partial accumulate(int[] from, int[] to, int[] allocation, int[] cost, int[] capacity,
+                                   int start, int end, long[] netInflow) {
+            for (int i = start; i < end; i++) {
+                long units = allocation[i];
+                add(units, cost[i], capacity[i]);
+                netInflow[to[i]] += units;
+                netInflow[from[i]] -= units;
+            }
+            return this;
+        }
+
+        private void add(long units, int cost, int capacity) {
+            this.cost += units * cost;
+            shipped += units;
+            utilization[bucket(units, capacity)]++;
+        }
+
+        private Partial merge(Partial other) {
+            cost += other.cost;
+            shipped += other.shipped;
+            for (int b = 0; b < UTILIZATION_BUCKETS; b++) utilization[b] += other.utilization[b];
+            return this;
+        }
+
+        private static int bucket(long units, long capacity) {
+            if (units <= 0) return 0;
+            if (capacity <= 0 || units >= capacity) return UTILIZATION_BUCKETS - 1;
+            return 1 + (int) ((units * 10 - 1) / capacity);
+        }
+    }
+}
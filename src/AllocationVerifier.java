@@ -0,0 +1,296 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Independent check of an allocation against the network it was made for,
+ * in the model of {@link SimpleAllocator#allocateForDemand}: a supplier with
+ * demand &lt;= 0 may ship out up to inventory - demand units net, a supplier
+ * with positive demand may take in up to its demand net, and any other
+ * supplier (a transporter endpoint not among the suppliers) must ship out
+ * exactly what it takes in.
+ * -
+ * Three checks, each linear in the size of the network; for large inputs the
+ * passes over lanes, suppliers and search levels run on the common fork-join pool:
+ * - capacity: 0 &lt;= allocation &lt;= maxCapacity for every transporter;
+ * - conservation: net flow at every supplier within the bounds above;
+ * - maximality: a breadth-first search of the residual network from the
+ *   super source. If it cannot reach the super sink, the suppliers it reaches
+ *   are the source side of a minimum cut; the verifier also checks that the
+ *   cut capacity equals the units delivered, which certifies that no
+ *   allocation can deliver more.
+ * allocateForDemand maximizes delivered units without minimizing cost, so
+ * there is no cost optimality to certify with reduced-cost duals.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AllocationVerifier {
+    /** Element count below which a pass runs sequentially. */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    /** Most violations kept (all are counted). */
+    private static final int MAX_REPORTED = 100;
+
+    /**
+     * Outcome of a verification.
+     */
+    public static final class Report {
+        private final long violationCount;
+        private final List<String> violations;
+        private final long delivered;
+        private final boolean maximum;
+        private final long cutCapacity;
+        private final AtomicIntegerArray sourceSide;
+        private final SupplierRegistry registry;
+
+        private Report(long violationCount, List<String> violations, long delivered, boolean maximum,
+                       long cutCapacity, AtomicIntegerArray sourceSide, SupplierRegistry registry) {
+            this.violationCount = violationCount;
+            this.violations = Collections.unmodifiableList(violations);
+            this.delivered = delivered;
+            this.maximum = maximum;
+            this.cutCapacity = cutCapacity;
+            this.sourceSide = sourceSide;
+            this.registry = registry;
+        }
+
+        /**
+         * @return true if every capacity and conservation check passed
+         */
+        public boolean feasible() { return violationCount == 0; }
+
+        /**
+         * @return number of failed capacity and conservation checks
+         */
+        public long violationCount() { return violationCount; }
+
+        /**
+         * @return descriptions of the first failed checks (at most 100), sorted
+         */
+        public List<String> violations() { return violations; }
+
+        /**
+         * @return net units received by suppliers with positive demand
+         */
+        public long delivered() { return delivered; }
+
+        /**
+         * @return true if the allocation is feasible and certified maximum by a minimum cut
+         */
+        public boolean maximum() { return maximum; }
+
+        /**
+         * @return capacity of the minimum cut witness, or -1 if there is none
+         */
+        public long cutCapacity() { return cutCapacity; }
+
+        /**
+         * @param supplierId supplier index (iteration order of the suppliers, then new transporter endpoints)
+         * @return true if the supplier is on the super source side of the minimum cut witness
+         */
+        public boolean onSourceSide(int supplierId) {
+            return sourceSide != null && sourceSide.get(supplierId) != 0;
+        }
+
+        /**
+         * @param supplier a supplier of the verified network
+         * @return true if the supplier is on the super source side of the minimum cut witness
+         */
+        public boolean onSourceSide(Supplier supplier) {
+            int id = registry == null ? -1 : registry.id(supplier);
+            return id >= 0 && onSourceSide(id);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("feasible=%s violations=%d delivered=%d maximum=%s cut=%d",
+                    feasible(), violationCount, delivered, maximum, cutCapacity);
+        }
+    }
+
+    /** Hide constructor of this utility class. */
+    private AllocationVerifier() { }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * Verify the allocations of the transporters.
+     * @param suppliers the suppliers, with the demand and inventory the allocation was made for
+     * @param transporters the transporters with their allocations
+     * @return the report
+     */
+    public static Report verify(Collection<Supplier> suppliers, Collection<Transporter> transporters) {
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        int supplierCount = registry.size();
+        Transporter[] lanes = transporters.toArray(new Transporter[0]);
+        int m = lanes.length;
+        int[] from = new int[m], to = new int[m], allocation = new int[m], capacity = new int[m];
+        for (int l = 0; l < m; l++) {
+            from[l] = registry.intern(lanes[l].from());
+            to[l] = registry.intern(lanes[l].to());
+            allocation[l] = lanes[l].allocation();
+            capacity[l] = lanes[l].maxCapacity();
+        }
+        int[] demand = new int[supplierCount], inventory = new int[supplierCount];
+        for (int id = 0; id < supplierCount; id++) {
+            demand[id] = registry.demand(id);
+            inventory[id] = registry.inventory(id);
+        }
+        return verify(registry.size(), demand, inventory, from, to, allocation, capacity,
+                l -> "Transporter " + lanes[l].name(), s -> "Supplier " + registry.supplier(s).name(), registry);
+    }
+
+    /**
+     * Verify an allocation given as lane arrays, as {@link AllocationSummary#ofLanes}.
+     * Suppliers with an index of demand.length or more are transshipment points.
+     * @param suppliers number of supplier indexes used by the lanes
+     * @param demand demand per supplier index (negative for manufacturers)
+     * @param inventory inventory per supplier index
+     * @param from source supplier index of each lane
+     * @param to destination supplier index of each lane
+     * @param allocation units allocated to each lane
+     * @param capacity maximum capacity of each lane
+     * @return the report
+     */
+    public static Report ofLanes(int suppliers, int[] demand, int[] inventory, int[] from, int[] to,
+                                 int[] allocation, int[] capacity) {
+        return verify(suppliers, demand, inventory, from, to, allocation, capacity,
+                l -> "Lane " + l, s -> "Supplier " + s, null);
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private static Report verify(int n, int[] demand, int[] inventory, int[] from, int[] to,
+                                 int[] allocation, int[] capacity,
+                                 IntFunction<String> laneName, IntFunction<String> supplierName,
+                                 SupplierRegistry registry) {
+        int m = allocation.length;
+        AtomicLong violationCount = new AtomicLong();
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        // Capacity bounds, and net outflow per supplier
+        range(m).forEach(l -> {
+            int units = allocation[l];
+            if (units < 0 || units > capacity[l]) {
+                report(violationCount, violations, laneName.apply(l) + ": allocation " + units
+                        + " outside [0, " + capacity[l] + "]");
+            }
+        });
+        long[] netOut = netOutflow(n, from, to, allocation);
+
+        // Conservation against inventory and demand; sums the units delivered
+        AtomicLong delivered = new AtomicLong();
+        range(n).forEach(s -> {
+            long net = netOut[s];
+            if (s >= demand.length) {
+                if (net != 0) report(violationCount, violations, supplierName.apply(s)
+                        + ": ships " + net + " units net but is only a transshipment point");
+            } else if (demand[s] <= 0) {
+                long supply = (long) inventory[s] - demand[s];
+                if (net < 0 || net > supply) report(violationCount, violations, supplierName.apply(s)
+                        + ": ships " + net + " units net, outside [0, " + supply + "]");
+            } else {
+                if (-net < 0 || -net > demand[s]) report(violationCount, violations, supplierName.apply(s)
+                        + ": receives " + -net + " units net, outside [0, " + demand[s] + "]");
+                if (net < 0) delivered.addAndGet(-net);
+            }
+        });
+        List<String> reported = new ArrayList<>(violations);
+        Collections.sort(reported);
+        if (violationCount.get() > 0) {
+            return new Report(violationCount.get(), reported, delivered.get(), false, -1, null, registry);
+        }
+
+        // Maximality: residual search from the super source, then check the cut it leaves
+        AtomicIntegerArray reached = residualReach(n, demand, inventory, from, to, allocation, capacity, netOut);
+        if (reached == null) return new Report(0, reported, delivered.get(), false, -1, null, registry);
+        long cut = range(n).mapToLong(s -> {
+            if (s >= demand.length) return 0;
+            boolean inside = reached.get(s) != 0;
+            if (demand[s] <= 0 && !inside) return (long) inventory[s] - demand[s];
+            return demand[s] > 0 && inside ? demand[s] : 0;
+        }).sum() + range(m).mapToLong(l ->
+                reached.get(from[l]) != 0 && reached.get(to[l]) == 0 ? capacity[l] : 0).sum();
+        boolean maximum = cut == delivered.get();
+        return new Report(0, reported, delivered.get(), maximum, cut, reached, registry);
+    }
+
+    // Net outflow per supplier; each parallel chunk of lanes fills its own array, summed per supplier after.
+    private static long[] netOutflow(int n, int[] from, int[] to, int[] allocation) {
+        int m = allocation.length;
+        int chunks = m < PARALLEL_THRESHOLD ? 1 : Math.max(1, Math.min(m / (PARALLEL_THRESHOLD / 4),
+                Runtime.getRuntime().availableProcessors()));
+        long[][] chunkOut = new long[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            long[] net = chunkOut[c] = new long[n];
+            int end = (int) ((long) m * (c + 1) / chunks);
+            for (int l = (int) ((long) m * c / chunks); l < end; l++) {
+                net[from[l]] += allocation[l];
+                net[to[l]] -= allocation[l];
+            }
+        });
+        if (chunks == 1) return chunkOut[0];
+        long[] netOut = new long[n];
+        range(n).forEach(s -> {
+            long net = 0;
+            for (long[] out : chunkOut) net += out[s];
+            netOut[s] = net;
+        });
+        return netOut;
+    }
+
+    // Level-synchronous parallel BFS over residual arcs; null if the super sink is reachable.
+    private static AtomicIntegerArray residualReach(int n, int[] demand, int[] inventory, int[] from, int[] to,
+                                                    int[] allocation, int[] capacity, long[] netOut) {
+        int m = allocation.length;
+        // Heads of the residual arcs by tail: a lane below capacity forward, a lane in use backward
+        int[] start = new int[n + 1];
+        for (int l = 0; l < m; l++) {
+            if (allocation[l] < capacity[l]) start[from[l] + 1]++;
+            if (allocation[l] > 0) start[to[l] + 1]++;
+        }
+        for (int v = 0; v < n; v++) start[v + 1] += start[v];
+        int[] heads = new int[start[n]];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int l = 0; l < m; l++) {
+            if (allocation[l] < capacity[l]) heads[fill[from[l]]++] = to[l];
+            if (allocation[l] > 0) heads[fill[to[l]]++] = from[l];
+        }
+
+        AtomicIntegerArray reached = new AtomicIntegerArray(n);
+        int[] frontier = range(n).filter(s -> s < demand.length && demand[s] <= 0
+                && netOut[s] < (long) inventory[s] - demand[s]).toArray();
+        for (int s : frontier) reached.set(s, 1);
+        while (frontier.length > 0) {
+            int[] current = frontier;
+            // The super sink is reached from any supplier that can still take demand
+            boolean sink = range(current.length).anyMatch(i -> {
+                int s = current[i];
+                return s < demand.length && demand[s] > 0 && -netOut[s] < demand[s];
+            });
+            if (sink) return null;
+            frontier = range(current.length).flatMap(i -> {
+                int u = current[i];
+                IntStream.Builder next = IntStream.builder();
+                for (int a = start[u]; a < start[u + 1]; a++) {
+                    if (reached.compareAndSet(heads[a], 0, 1)) next.add(heads[a]);
+                }
+                return next.build();
+            }).toArray();
+        }
+        return reached;
+    }
+
+    private static IntStream range(int size) {
+        IntStream range = IntStream.range(0, size);
+        return size < PARALLEL_THRESHOLD ? range : range.parallel();
+    }
+
+    private static void report(AtomicLong count, ConcurrentLinkedQueue<String> violations, String message) {
+        if (count.incrementAndGet() <= MAX_REPORTED) violations.add(message);
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
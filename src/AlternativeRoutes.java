@@ -0,0 +1,303 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Ranked alternative routes between two suppliers, for replanning when a
+ * transporter on the cheapest path fails.
+ * -
+ * {@link #kCheapest} returns the k cheapest loopless lane sequences using
+ * Yen's algorithm with Lawler's refinement (a new route only spawns spur
+ * searches from the point where it deviated from its parent route).
+ * One reverse shortest-path tree to the destination is built up front and
+ * reused by every spur search: it is the A* heuristic, and whenever the
+ * tree path from a spur supplier avoids the blocked lanes and suppliers it
+ * is taken directly without searching. The spur searches of one route are
+ * independent and run in parallel on large networks.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class AlternativeRoutes {
+    /** Spur work (suppliers x spur searches) above which spur searches run in parallel. */
+    private static final long PARALLEL_THRESHOLD = 1 << 15;
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    /**
+     * A route: the transporters in order from source to destination and their total unit cost.
+     */
+    public static final class Route {
+        private final List<Transporter> transporters;
+        private final long cost;
+
+        private Route(List<Transporter> transporters, long cost) {
+            this.transporters = Collections.unmodifiableList(transporters);
+            this.cost = cost;
+        }
+
+        /**
+         * @return the transporters of this route, from source to destination
+         */
+        public List<Transporter> transporters() { return transporters; }
+
+        /**
+         * @return the sum of costPerUnit over the route's transporters
+         */
+        public long cost() { return cost; }
+
+        @Override
+        public String toString() {
+            StringBuilder names = new StringBuilder();
+            for (Transporter t : transporters) names.append(names.length() == 0 ? "" : " -> ").append(t.name());
+            return "$" + cost + ": " + names;
+        }
+    }
+
+    // Network indexed once per query
+    private final Transporter[] lanes;
+    private final int[] laneFrom, laneTo;
+    private final long[] laneCost;
+    private final int[] outStart, outLanes;
+    private final int nodeCount;
+    private final int destination;
+    // Reverse shortest-path tree to the destination
+    private final long[] toDestination;
+    private final int[] treeLane;
+
+    /**
+     * Find up to k cheapest loopless routes from source to destination.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param source the starting supplier
+     * @param destination the final supplier
+     * @param k the number of routes wanted
+     * @return routes ordered by cost (cheapest first); empty if destination is unreachable
+     */
+    public static List<Route> kCheapest(Collection<Supplier> suppliers,
+                                        Collection<Transporter> transporters,
+                                        Supplier source,
+                                        Supplier destination,
+                                        int k) {
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+        int sourceId = registry.intern(source);
+        AlternativeRoutes routes = new AlternativeRoutes(registry, transporters, registry.intern(destination));
+        return routes.search(sourceId, k);
+    }
+
+    private AlternativeRoutes(SupplierRegistry registry, Collection<Transporter> transporters, int destination) {
+        this.nodeCount = registry.size();
+        this.destination = destination;
+        this.lanes = transporters.toArray(new Transporter[0]);
+        int m = lanes.length;
+        laneFrom = new int[m];
+        laneTo = new int[m];
+        laneCost = new long[m];
+        outStart = new int[nodeCount + 1];
+        int[] inStart = new int[nodeCount + 1];
+        for (int l = 0; l < m; l++) {
+            laneFrom[l] = registry.id(lanes[l].from());
+            laneTo[l] = registry.id(lanes[l].to());
+            laneCost[l] = lanes[l].costPerUnit();
+            outStart[laneFrom[l] + 1]++;
+            inStart[laneTo[l] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            outStart[v + 1] += outStart[v];
+            inStart[v + 1] += inStart[v];
+        }
+        outLanes = new int[m];
+        int[] inLanes = new int[m];
+        int[] outFill = Arrays.copyOf(outStart, nodeCount);
+        int[] inFill = Arrays.copyOf(inStart, nodeCount);
+        for (int l = 0; l < m; l++) {
+            outLanes[outFill[laneFrom[l]]++] = l;
+            inLanes[inFill[laneTo[l]]++] = l;
+        }
+
+        // Dijkstra backwards from the destination gives every supplier's cheapest cost to it
+        toDestination = new long[nodeCount];
+        treeLane = new int[nodeCount];
+        Arrays.fill(toDestination, INF);
+        Arrays.fill(treeLane, -1);
+        toDestination[destination] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        queue.add(new long[]{0, destination});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int v = (int) entry[1];
+            if (entry[0] > toDestination[v]) continue;
+            for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+                int l = inLanes[i];
+                long newCost = toDestination[v] + laneCost[l];
+                if (newCost < toDestination[laneFrom[l]]) {
+                    toDestination[laneFrom[l]] = newCost;
+                    treeLane[laneFrom[l]] = l;
+                    queue.add(new long[]{newCost, laneFrom[l]});
+                }
+            }
+        }
+    }
+
+    // Candidate route: lane ids, cost, and the index at which it deviated from its parent (Lawler).
+    private static final class Candidate {
+        private final int[] lanes;
+        private final long cost;
+        private final int deviation;
+
+        private Candidate(int[] lanes, long cost, int deviation) {
+            this.lanes = lanes;
+            this.cost = cost;
+            this.deviation = deviation;
+        }
+    }
+
+    private List<Route> search(int source, int k) {
+        List<Route> result = new ArrayList<>();
+        if (k <= 0 || toDestination[source] >= INF || source == destination) return result;
+
+        List<Candidate> accepted = new ArrayList<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+                Comparator.comparingLong((Candidate c) -> c.cost).thenComparingInt(c -> c.lanes.length));
+        Set<List<Integer>> seen = new HashSet<>();
+        Candidate first = new Candidate(treePath(source, new int[0]), toDestination[source], 0);
+        seen.add(key(first.lanes));
+        candidates.add(first);
+        // Search arrays shared by this query's spur searches, one per concurrent search; dropped on return
+        Queue<Scratch> scratch = new ConcurrentLinkedQueue<>();
+
+        while (accepted.size() < k && !candidates.isEmpty()) {
+            Candidate last = candidates.poll();
+            accepted.add(last);
+            if (accepted.size() == k) break;
+
+            // Spur from every supplier on the route at or after its deviation point
+            int[] nodes = nodesOf(source, last.lanes);
+            int from = last.deviation;
+            int to = last.lanes.length;
+            IntStream spurs = IntStream.range(from, to);
+            if ((long) (to - from) * nodeCount >= PARALLEL_THRESHOLD) spurs = spurs.parallel();
+            Candidate[] spurred = new Candidate[to - from];
+            spurs.forEach(i -> {
+                Scratch s = scratch.poll();
+                if (s == null) s = new Scratch(nodeCount, lanes.length);
+                spurred[i - from] = spur(last, nodes, i, accepted, s);
+                scratch.add(s);
+            });
+            for (Candidate candidate : spurred) {
+                if (candidate != null && seen.add(key(candidate.lanes))) candidates.add(candidate);
+            }
+        }
+
+        for (Candidate candidate : accepted) {
+            List<Transporter> route = new ArrayList<>(candidate.lanes.length);
+            for (int l : candidate.lanes) route.add(lanes[l]);
+            result.add(new Route(route, candidate.cost));
+        }
+        return result;
+    }
+
+    // Cheapest deviation from the route at position i that avoids the root suppliers and already-used next lanes.
+    private Candidate spur(Candidate route, int[] nodes, int i, List<Candidate> accepted, Scratch s) {
+        s.round++;
+        int spurNode = nodes[i];
+        long rootCost = 0;
+        for (int j = 0; j < i; j++) {
+            s.blockedNode[nodes[j]] = s.round;
+            rootCost += laneCost[route.lanes[j]];
+        }
+        for (Candidate other : accepted) {
+            if (other.lanes.length > i && samePrefix(other.lanes, route.lanes, i)) {
+                s.blockedLane[other.lanes[i]] = s.round;
+            }
+        }
+        int[] root = Arrays.copyOf(route.lanes, i);
+
+        // Reuse the shortest-path tree when its path from the spur supplier is still open
+        if (treeOpen(spurNode, s)) {
+            return new Candidate(treePath(spurNode, root), rootCost + toDestination[spurNode], i);
+        }
+
+        // Otherwise A* toward the destination with the tree costs as the heuristic
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        s.visit[spurNode] = s.round;
+        s.cost[spurNode] = 0;
+        queue.add(new long[]{toDestination[spurNode], spurNode});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > s.cost[u] + toDestination[u]) continue;
+            if (u == destination) {
+                int length = 0;
+                for (int v = u; v != spurNode; v = laneFrom[s.parent[v]]) length++;
+                int[] path = Arrays.copyOf(root, i + length);
+                for (int v = u, j = i + length - 1; v != spurNode; v = laneFrom[s.parent[v]], j--) path[j] = s.parent[v];
+                return new Candidate(path, rootCost + s.cost[u], i);
+            }
+            for (int a = outStart[u]; a < outStart[u + 1]; a++) {
+                int l = outLanes[a];
+                int v = laneTo[l];
+                if (s.blockedLane[l] == s.round || s.blockedNode[v] == s.round || toDestination[v] >= INF) continue;
+                long newCost = s.cost[u] + laneCost[l];
+                if (s.visit[v] != s.round || newCost < s.cost[v]) {
+                    s.visit[v] = s.round;
+                    s.cost[v] = newCost;
+                    s.parent[v] = l;
+                    queue.add(new long[]{newCost + toDestination[v], v});
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean treeOpen(int v, Scratch s) {
+        for (; v != destination; v = laneTo[treeLane[v]]) {
+            if (s.blockedLane[treeLane[v]] == s.round || s.blockedNode[laneTo[treeLane[v]]] == s.round) return false;
+        }
+        return true;
+    }
+
+    private int[] treePath(int v, int[] root) {
+        int length = 0;
+        for (int u = v; u != destination; u = laneTo[treeLane[u]]) length++;
+        int[] path = Arrays.copyOf(root, root.length + length);
+        for (int u = v, j = root.length; u != destination; u = laneTo[treeLane[u]]) path[j++] = treeLane[u];
+        return path;
+    }
+
+    private int[] nodesOf(int source, int[] route) {
+        int[] nodes = new int[route.length + 1];
+        nodes[0] = source;
+        for (int j = 0; j < route.length; j++) nodes[j + 1] = laneTo[route[j]];
+        return nodes;
+    }
+
+    private static boolean samePrefix(int[] a, int[] b, int length) {
+        for (int j = 0; j < length; j++) if (a[j] != b[j]) return false;
+        return true;
+    }
+
+    private static List<Integer> key(int[] route) {
+        List<Integer> key = new ArrayList<>(route.length);
+        for (int l : route) key.add(l);
+        return key;
+    }
+
+    // Search arrays of one spur search at a time; entries are valid only when their stamp equals the current round.
+    private static final class Scratch {
+        private final int[] blockedNode, blockedLane, visit, parent;
+        private final long[] cost;
+        private int round;
+
+        private Scratch(int nodes, int lanes) {
+            blockedNode = new int[nodes];
+            blockedLane = new int[lanes];
+            visit = new int[nodes];
+            parent = new int[nodes];
+            cost = new long[nodes];
+        }
+    }
+}
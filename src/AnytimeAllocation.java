@@ -0,0 +1,90 @@
+/**
+ * Allocation found by a budgeted run of allocateForDemand, with a certified
+ * bound on how much more demand the network could still deliver.
+ * -
+ * The allocation is always feasible: it is the flow after a whole number of
+ * augmenting paths, read from the forward edge each transporter was given in
+ * the flow graph, so it respects every capacity and conserves units at every
+ * supplier. When the run stops before the flow is maximum,
+ * {@link #remainingBound()} is the residual capacity of the smallest cut
+ * between the super source and super sink among the breadth-first layers of
+ * the residual network. No allocation can deliver more than
+ * delivered + remainingBound units, so at least
+ * unmetDemand - remainingBound units of demand go unmet in any allocation.
+ * -
+ * @author CS4050
+ * @version 20261019
+ * @see SimpleAllocator#allocateForDemand(java.util.Collection, java.util.Collection, long, long, java.util.function.Consumer)
+ */
+public final class AnytimeAllocation {
+    private final int[] allocation;
+    private final long delivered;
+    private final long totalDemand;
+    private final long remainingBound;
+    private final boolean optimal;
+    private final long augmentations;
+    private final long elapsedNanos;
+
+    AnytimeAllocation(int[] allocation, long delivered, long totalDemand, long remainingBound,
+                      boolean optimal, long augmentations, long elapsedNanos) {
+        this.allocation = allocation;
+        this.delivered = delivered;
+        this.totalDemand = totalDemand;
+        this.remainingBound = remainingBound;
+        this.optimal = optimal;
+        this.augmentations = augmentations;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of lanes (transporters, in iteration order)
+     */
+    public int lanes() { return allocation.length; }
+
+    /**
+     * @param lane index of a transporter in the iteration order of the transporters
+     * @return units allocated to that transporter
+     */
+    public int allocation(int lane) { return allocation[lane]; }
+
+    /**
+     * @return units delivered to suppliers with positive demand
+     */
+    public long delivered() { return delivered; }
+
+    /**
+     * @return total positive demand minus the units delivered
+     */
+    public long unmetDemand() { return totalDemand - delivered; }
+
+    /**
+     * @return certified upper bound on the units that could still be delivered; 0 when optimal
+     */
+    public long remainingBound() { return remainingBound; }
+
+    /**
+     * @return certified lower bound on the unmet demand of any allocation
+     */
+    public long minimumUnmetDemand() { return unmetDemand() - remainingBound; }
+
+    /**
+     * @return true if no augmenting path remains (the flow is maximum)
+     */
+    public boolean optimal() { return optimal; }
+
+    /**
+     * @return augmenting paths applied so far
+     */
+    public long augmentations() { return augmentations; }
+
+    /**
+     * @return time since the run started, in nanoseconds
+     */
+    public long elapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return String.format("delivered=%d unmet=%d bound=%d optimal=%s augmentations=%d ms=%.3f",
+                delivered, unmetDemand(), remainingBound, optimal, augmentations, elapsedNanos / 1e6);
+    }
+}
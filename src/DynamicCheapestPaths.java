@@ -0,0 +1,283 @@
+import java.util.*;
+
+/**
+ * Cheapest-path trees from a few key sources, kept up to date as lane costs
+ * change and lanes are added or removed.
+ * -
+ * Each source holds a shortest-path tree (cost and previous lane per supplier),
+ * as computed by {@link SimpleAllocator#cheapestPath}. Updates are applied in
+ * the style of Ramalingam and Reps instead of rerunning Dijkstra:
+ * - a cheaper or new lane (u, v) only matters if it improves v; the
+ *   improvement is then propagated from v with a Dijkstra limited to the
+ *   suppliers whose cost drops;
+ * - a dearer or removed lane only matters if it is the tree lane into v;
+ *   then just v's subtree is invalidated, each supplier in it is seeded with
+ *   its best lane from outside the subtree, and Dijkstra runs within the subtree.
+ * Transporter costs are immutable, so the current cost of each lane is kept here.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public class DynamicCheapestPaths {
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    // Topology, grown as suppliers and lanes are added
+    private final SupplierRegistry registry = new SupplierRegistry();
+    private final Map<Transporter, Integer> laneIndex = new IdentityHashMap<>();
+    private final List<Transporter> lanes = new ArrayList<>();
+    private int[] laneFrom = new int[16], laneTo = new int[16];
+    private long[] laneCost = new long[16];
+    private boolean[] removed = new boolean[16];
+    private final List<int[]> outLanes = new ArrayList<>();
+    private final List<int[]> inLanes = new ArrayList<>();
+    private int[] outCount = new int[16], inCount = new int[16];
+
+    // One tree per source
+    private final int[] sources;
+    private final long[][] dist;
+    private final int[][] parent;
+
+    // Scratch
+    private int[] mark = new int[16];
+    private int round;
+
+    /**
+     * Build cheapest-path trees for the given sources.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param sources the sources whose trees are maintained
+     */
+    public DynamicCheapestPaths(Collection<Supplier> suppliers,
+                                Collection<Transporter> transporters,
+                                Collection<Supplier> sources) {
+        for (Supplier supplier : suppliers) node(supplier);
+        for (Transporter transporter : transporters) link(transporter);
+        this.sources = new int[sources.size()];
+        this.dist = new long[sources.size()][];
+        this.parent = new int[sources.size()][];
+        int i = 0;
+        for (Supplier source : sources) {
+            this.sources[i] = node(source);
+            dist[i] = new long[0];
+            parent[i] = new int[0];
+            fit(i);
+            Arrays.fill(dist[i], INF);
+            Arrays.fill(parent[i], -1);
+            dist[i][this.sources[i]] = 0;
+            propagate(i, new int[]{this.sources[i]});
+            i++;
+        }
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * @param source a maintained source
+     * @param destination any supplier
+     * @return cheapest cost from source to destination, or -1 if unreachable
+     */
+    public long cost(Supplier source, Supplier destination) {
+        int s = tree(source);
+        int v = registry.id(destination);
+        if (v < 0 || dist[s][v] >= INF) return -1;
+        return dist[s][v];
+    }
+
+    /**
+     * @param source a maintained source
+     * @param destination any supplier
+     * @return transporters of the cheapest path; empty if unreachable
+     */
+    public List<Transporter> path(Supplier source, Supplier destination) {
+        int s = tree(source);
+        List<Transporter> path = new ArrayList<>();
+        int v = registry.id(destination);
+        if (v < 0) return path;
+        for (int u = v; parent[s][u] >= 0; u = laneFrom[parent[s][u]]) path.add(lanes.get(parent[s][u]));
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Change the cost per unit of a lane and repair every tree.
+     * @param transporter the lane
+     * @param costPerUnit its new cost per unit
+     */
+    public void updateCost(Transporter transporter, int costPerUnit) {
+        int l = lane(transporter);
+        long old = laneCost[l];
+        laneCost[l] = costPerUnit;
+        for (int s = 0; s < sources.length; s++) {
+            if (costPerUnit < old) decreased(s, l);
+            else if (costPerUnit > old) increased(s, l);
+        }
+    }
+
+    /**
+     * Add a lane (its suppliers are added if new) and repair every tree.
+     * @param transporter the new lane
+     */
+    public void addLane(Transporter transporter) {
+        int l = link(transporter);
+        for (int s = 0; s < sources.length; s++) {
+            fit(s);
+            decreased(s, l);
+        }
+    }
+
+    /**
+     * Remove a lane and repair every tree.
+     * @param transporter the lane to remove
+     */
+    public void removeLane(Transporter transporter) {
+        int l = lane(transporter);
+        removed[l] = true;
+        laneIndex.remove(transporter);
+        for (int s = 0; s < sources.length; s++) increased(s, l);
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private int tree(Supplier source) {
+        int v = registry.id(source);
+        if (v >= 0) {
+            for (int s = 0; s < sources.length; s++) if (sources[s] == v) return s;
+        }
+        throw new IllegalArgumentException("Not a maintained source: " + source.name());
+    }
+
+    private int lane(Transporter transporter) {
+        Integer l = laneIndex.get(transporter);
+        if (l == null) throw new IllegalArgumentException("Unknown transporter: " + transporter.name());
+        return l;
+    }
+
+    private int node(Supplier supplier) {
+        int known = registry.size();
+        int id = registry.intern(supplier);
+        if (id < known) return id;
+        outLanes.add(new int[2]);
+        inLanes.add(new int[2]);
+        if (id >= outCount.length) {
+            outCount = Arrays.copyOf(outCount, id * 2);
+            inCount = Arrays.copyOf(inCount, id * 2);
+            mark = Arrays.copyOf(mark, id * 2);
+        }
+        return id;
+    }
+
+    private int link(Transporter transporter) {
+        int from = node(transporter.from());
+        int to = node(transporter.to());
+        int l = lanes.size();
+        lanes.add(transporter);
+        laneIndex.put(transporter, l);
+        if (l >= laneFrom.length) {
+            laneFrom = Arrays.copyOf(laneFrom, l * 2);
+            laneTo = Arrays.copyOf(laneTo, l * 2);
+            laneCost = Arrays.copyOf(laneCost, l * 2);
+            removed = Arrays.copyOf(removed, l * 2);
+        }
+        laneFrom[l] = from;
+        laneTo[l] = to;
+        laneCost[l] = transporter.costPerUnit();
+        append(outLanes, outCount, from, l);
+        append(inLanes, inCount, to, l);
+        return l;
+    }
+
+    private static void append(List<int[]> lists, int[] counts, int v, int l) {
+        int[] list = lists.get(v);
+        if (counts[v] == list.length) lists.set(v, list = Arrays.copyOf(list, list.length * 2));
+        list[counts[v]++] = l;
+    }
+
+    // Grow a tree's arrays after suppliers were added.
+    private void fit(int s) {
+        int n = registry.size();
+        if (dist[s].length >= n) return;
+        int old = dist[s].length;
+        dist[s] = Arrays.copyOf(dist[s], n);
+        parent[s] = Arrays.copyOf(parent[s], n);
+        Arrays.fill(dist[s], old, n, INF);
+        Arrays.fill(parent[s], old, n, -1);
+    }
+
+    private void decreased(int s, int l) {
+        int u = laneFrom[l];
+        int v = laneTo[l];
+        if (removed[l] || dist[s][u] >= INF) return;
+        long newCost = dist[s][u] + laneCost[l];
+        if (newCost < dist[s][v]) {
+            dist[s][v] = newCost;
+            parent[s][v] = l;
+            propagate(s, new int[]{v});
+        }
+    }
+
+    private void increased(int s, int l) {
+        int v = laneTo[l];
+        if (parent[s][v] != l) return;
+
+        // Collect v's subtree: suppliers whose tree path runs through lane l
+        round++;
+        List<Integer> subtree = new ArrayList<>();
+        subtree.add(v);
+        mark[v] = round;
+        for (int i = 0; i < subtree.size(); i++) {
+            int u = subtree.get(i);
+            int[] out = outLanes.get(u);
+            for (int j = 0; j < outCount[u]; j++) {
+                int w = laneTo[out[j]];
+                if (parent[s][w] == out[j] && mark[w] != round) {
+                    mark[w] = round;
+                    subtree.add(w);
+                }
+            }
+        }
+
+        // Seed each subtree supplier with its cheapest lane from outside the subtree
+        for (int u : subtree) {
+            dist[s][u] = INF;
+            parent[s][u] = -1;
+        }
+        for (int u : subtree) {
+            int[] in = inLanes.get(u);
+            for (int j = 0; j < inCount[u]; j++) {
+                int e = in[j];
+                int x = laneFrom[e];
+                if (removed[e] || mark[x] == round || dist[s][x] >= INF) continue;
+                if (dist[s][x] + laneCost[e] < dist[s][u]) {
+                    dist[s][u] = dist[s][x] + laneCost[e];
+                    parent[s][u] = e;
+                }
+            }
+        }
+        propagate(s, subtree.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Dijkstra from the given seeds (with their current costs), relaxing only strict improvements.
+    private void propagate(int s, int[] seeds) {
+        long[] d = dist[s];
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        for (int v : seeds) if (d[v] < INF) queue.add(new long[]{d[v], v});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > d[u]) continue;
+            int[] out = outLanes.get(u);
+            for (int j = 0; j < outCount[u]; j++) {
+                int l = out[j];
+                if (removed[l]) continue;
+                int w = laneTo[l];
+                long newCost = d[u] + laneCost[l];
+                if (newCost < d[w]) {
+                    d[w] = newCost;
+                    parent[s][w] = l;
+                    queue.add(new long[]{newCost, w});
+                }
+            }
+        }
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
@@ -0,0 +1,481 @@
+import java.util.*;
+
+/**
+ * Allocator that plans shipments over a rolling horizon of periods (days).
+ * -
+ * The planning network is a time-expanded copy of the supplier/transporter
+ * network, but it is never materialized: each supplier and transporter is
+ * indexed once, and the node for (supplier, period) and the arcs touching it
+ * are derived by index arithmetic. Only the per-period flows, supplies and
+ * demands are stored, in a ring of period blocks so that rolling the horizon
+ * forward one day is a constant-size operation.
+ * -
+ * Arcs of the implicit network (for each period t):
+ * - lane arcs: (from, t) -> (to, t), capacity maxCapacity, cost costPerUnit
+ * - holdover arcs: (s, t) -> (s, t + 1), capacity s.maxCapacity, cost s.storageCost
+ * - supply arcs: source -> (s, t), capacity = units entering the network at s in t
+ * - demand arcs: (s, t) -> sink, capacity = demand at s in t
+ * -
+ * By default a supplier with negative demand (a manufacturer) produces
+ * -demand units every period, inventory on hand enters in period 0,
+ * and a supplier with positive demand consumes that demand every period.
+ * -
+ * The solver computes a maximum flow of minimum cost (successive shortest
+ * paths with node potentials). After {@link #rollForward()} the previous plan
+ * is kept: its flows are shifted one period earlier, inventory carried out of
+ * the committed day becomes supply of the new first day, and the next
+ * {@link #solve()} only repairs potentials and routes the remaining units.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public class MultiPeriodAllocator {
+    /** Distance used for unreachable nodes. */
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final Supplier[] suppliers;
+    private final Transporter[] transporters;
+    private final SupplierRegistry registry;
+    private final Map<Transporter, Integer> laneIndex = new IdentityHashMap<>();
+
+    /** Number of suppliers, lanes, periods, and flow entries per period block. */
+    private final int n, m, horizon, block;
+    /** Logical node ids of the super source and super sink. */
+    private final int source, sink, nodeCount;
+
+    // Lane template shared by every period (CSR adjacency by supplier index).
+    private final int[] laneFrom, laneTo, laneCap, laneCost;
+    private final int[] outStart, outLanes, inStart, inLanes;
+
+    // Per-period storage, indexed by ring slot: [lanes | holdover | supply | demand].
+    private final int[] flow;
+    private final int[] supply;
+    private final int[] demand;
+    /** Ring slot holding period 0. */
+    private int base;
+
+    // Node potentials by logical node id, kept between solves for warm starts.
+    private final long[] potential;
+    private boolean coldStart = true;
+    private boolean needsRepair = true;
+
+    // Search scratch space.
+    private final long[] dist;
+    private final int[] parentArc, parentNode;
+    private final int[] nbArc, nbHead;
+    private int nbCount;
+
+    /**
+     * Build a multi-period planner over the given network.
+     * @param suppliers the suppliers (nodes) of the network
+     * @param transporters the transporters (lanes) between those suppliers
+     * @param horizon number of periods planned at once (at least 1)
+     */
+    public MultiPeriodAllocator(Collection<Supplier> suppliers,
+                                Collection<Transporter> transporters,
+                                int horizon) {
+        if (horizon < 1) throw new IllegalArgumentException("horizon must be at least 1");
+        this.registry = SupplierRegistry.of(suppliers);
+        this.n = registry.size();
+        this.suppliers = new Supplier[n];
+        for (int s = 0; s < n; s++) this.suppliers[s] = registry.supplier(s);
+        this.transporters = transporters.toArray(new Transporter[0]);
+        this.m = this.transporters.length;
+        this.horizon = horizon;
+        this.block = m + 3 * n;
+        this.source = horizon * n;
+        this.sink = source + 1;
+        this.nodeCount = sink + 1;
+
+        laneFrom = new int[m];
+        laneTo = new int[m];
+        laneCap = new int[m];
+        laneCost = new int[m];
+        outStart = new int[n + 1];
+        inStart = new int[n + 1];
+        for (int l = 0; l < m; l++) {
+            Transporter t = this.transporters[l];
+            int from = registry.id(t.from());
+            int to = registry.id(t.to());
+            if (from < 0 || to < 0) {
+                throw new IllegalArgumentException("Transporter " + t.name() + " connects an unknown supplier");
+            }
+            laneIndex.putIfAbsent(t, l);
+            laneFrom[l] = from;
+            laneTo[l] = to;
+            laneCap[l] = t.maxCapacity();
+            laneCost[l] = t.costPerUnit();
+            outStart[from + 1]++;
+            inStart[to + 1]++;
+        }
+        for (int s = 0; s < n; s++) {
+            outStart[s + 1] += outStart[s];
+            inStart[s + 1] += inStart[s];
+        }
+        outLanes = new int[m];
+        inLanes = new int[m];
+        int[] outFill = Arrays.copyOf(outStart, n);
+        int[] inFill = Arrays.copyOf(inStart, n);
+        int maxDegree = 0;
+        for (int l = 0; l < m; l++) {
+            outLanes[outFill[laneFrom[l]]++] = l;
+            inLanes[inFill[laneTo[l]]++] = l;
+        }
+        for (int s = 0; s < n; s++) {
+            maxDegree = Math.max(maxDegree, outStart[s + 1] - outStart[s] + inStart[s + 1] - inStart[s]);
+        }
+
+        flow = new int[horizon * block];
+        supply = new int[horizon * n];
+        demand = new int[horizon * n];
+        for (int t = 0; t < horizon; t++) resetPeriod(slotOf(t), t == 0);
+
+        potential = new long[nodeCount];
+        dist = new long[nodeCount];
+        parentArc = new int[nodeCount];
+        parentNode = new int[nodeCount];
+        int scratch = Math.max(horizon * n, maxDegree + 4);
+        nbArc = new int[scratch];
+        nbHead = new int[scratch];
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * Solve (or re-solve) the plan for the current horizon.
+     * Reuses the previous plan when one exists.
+     * @return the total transport and storage cost of the plan
+     */
+    public long solve() {
+        if (coldStart) {
+            Arrays.fill(flow, 0);
+            Arrays.fill(potential, 0);
+            coldStart = false;
+            needsRepair = true;
+        }
+        // Restore non-negative reduced costs (cancelling any negative cycles) after edits or a roll
+        if (needsRepair) {
+            repairPotentials();
+            needsRepair = false;
+        }
+        while (shortestPath()) augment();
+        return totalCost();
+    }
+
+    /**
+     * Commit period 0 and advance the horizon by one period.
+     * Inventory carried out of the committed period becomes supply of the new
+     * period 0, the new last period receives default supply and demand, and
+     * the remaining plan is kept so the next {@link #solve()} is warm-started.
+     */
+    public void rollForward() {
+        if (horizon == 1) {
+            resetPeriod(base, true);
+            coldStart = true;
+            return;
+        }
+        int slot0 = base;
+        int slot1 = slotOf(1);
+        for (int s = 0; s < n; s++) {
+            int carried = flow[slot0 * block + m + s];
+            supply[slot1 * n + s] += carried;
+            flow[slot1 * block + m + n + s] += carried;
+        }
+        resetPeriod(slot0, false);
+        base = slotOf(1);
+
+        // Shift potentials one period earlier; the new period inherits its predecessor's values
+        System.arraycopy(potential, n, potential, 0, (horizon - 1) * n);
+        System.arraycopy(potential, (horizon - 2) * n, potential, (horizon - 1) * n, n);
+        needsRepair = true;
+    }
+
+    /**
+     * Set the demand of a supplier in a period.
+     * @param period the period, 0 being the first day of the horizon
+     * @param supplier the supplier
+     * @param units the demand in that period
+     */
+    public void setDemand(int period, Supplier supplier, int units) {
+        int i = slotOf(checkPeriod(period)) * n + index(supplier);
+        if (units < flow[slotOf(period) * block + m + 2 * n + index(supplier)]) coldStart = true;
+        demand[i] = Math.max(0, units);
+        needsRepair = true;
+    }
+
+    /**
+     * Set the number of units that enter the network at a supplier in a period
+     * (production, or inventory on hand for period 0).
+     * @param period the period, 0 being the first day of the horizon
+     * @param supplier the supplier
+     * @param units the supply in that period
+     */
+    public void setSupply(int period, Supplier supplier, int units) {
+        int i = slotOf(checkPeriod(period)) * n + index(supplier);
+        if (units < flow[slotOf(period) * block + m + n + index(supplier)]) coldStart = true;
+        supply[i] = Math.max(0, units);
+        needsRepair = true;
+    }
+
+    /**
+     * @param period the period
+     * @param transporter the transporter
+     * @return units planned on the transporter in that period
+     */
+    public int allocation(int period, Transporter transporter) {
+        Integer l = laneIndex.get(transporter);
+        if (l == null) return 0;
+        return flow[slotOf(checkPeriod(period)) * block + l];
+    }
+
+    /**
+     * @param period the period
+     * @param supplier the supplier
+     * @return units stored at the supplier from the end of the period into the next
+     */
+    public int carriedInventory(int period, Supplier supplier) {
+        return flow[slotOf(checkPeriod(period)) * block + m + index(supplier)];
+    }
+
+    /**
+     * @param period the period
+     * @param supplier the supplier
+     * @return demand at the supplier in that period that the plan does not satisfy
+     */
+    public int unmetDemand(int period, Supplier supplier) {
+        int slot = slotOf(checkPeriod(period));
+        int s = index(supplier);
+        return demand[slot * n + s] - flow[slot * block + m + 2 * n + s];
+    }
+
+    /**
+     * Set each transporter's allocation to its planned flow in the given period.
+     * @param period the period
+     * @return the transporters, as with {@link SimpleAllocator#allocateForDemand}
+     */
+    public Collection<Transporter> allocationsFor(int period) {
+        int slot = slotOf(checkPeriod(period));
+        Collection<Transporter> allocation = new ArrayList<>(m);
+        for (int l = 0; l < m; l++) {
+            transporters[l].setAllocation(flow[slot * block + l]);
+            allocation.add(transporters[l]);
+        }
+        return allocation;
+    }
+
+    /**
+     * @return the transport and storage cost of the current plan over the horizon
+     */
+    public long totalCost() {
+        long cost = 0;
+        for (int slot = 0; slot < horizon; slot++) {
+            int offset = slot * block;
+            for (int l = 0; l < m; l++) cost += (long) flow[offset + l] * laneCost[l];
+            for (int s = 0; s < n; s++) cost += (long) flow[offset + m + s] * suppliers[s].storageCost();
+        }
+        return cost;
+    }
+
+    /**
+     * @return number of periods in the horizon
+     */
+    public int horizon() { return horizon; }
+
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private int slotOf(int period) {
+        return (base + period) % horizon;
+    }
+
+    private int checkPeriod(int period) {
+        if (period < 0 || period >= horizon) throw new IndexOutOfBoundsException("period " + period);
+        return period;
+    }
+
+    private int index(Supplier supplier) {
+        int s = registry.id(supplier);
+        if (s < 0) throw new IllegalArgumentException("Unknown supplier " + supplier.name());
+        return s;
+    }
+
+    // Clear a period block and load default supply and demand from the suppliers.
+    private void resetPeriod(int slot, boolean first) {
+        Arrays.fill(flow, slot * block, (slot + 1) * block, 0);
+        for (int s = 0; s < n; s++) {
+            Supplier supplier = suppliers[s];
+            int produced = supplier.demand() < 0 ? -supplier.demand() : 0;
+            supply[slot * n + s] = first ? produced + supplier.inventory() : produced;
+            demand[slot * n + s] = Math.max(0, supplier.demand());
+        }
+    }
+
+    private int capacity(int arc) {
+        int slot = arc / block;
+        int offset = arc % block;
+        if (offset < m) return laneCap[offset];
+        if (offset < m + n) return suppliers[offset - m].maxCapacity();
+        if (offset < m + 2 * n) return supply[slot * n + offset - m - n];
+        return demand[slot * n + offset - m - 2 * n];
+    }
+
+    // Residual arcs are encoded as (arc << 1) | backward.
+    private int residual(int encoded) {
+        int arc = encoded >>> 1;
+        return (encoded & 1) == 1 ? flow[arc] : capacity(arc) - flow[arc];
+    }
+
+    private long cost(int encoded) {
+        int offset = (encoded >>> 1) % block;
+        long c = 0;
+        if (offset < m) c = laneCost[offset];
+        else if (offset < m + n) c = suppliers[offset - m].storageCost();
+        return (encoded & 1) == 1 ? -c : c;
+    }
+
+    private void push(int encoded, int units) {
+        if ((encoded & 1) == 1) flow[encoded >>> 1] -= units;
+        else flow[encoded >>> 1] += units;
+    }
+
+    private void emit(int encoded, int head) {
+        nbArc[nbCount] = encoded;
+        nbHead[nbCount++] = head;
+    }
+
+    // Collect the residual arcs leaving a node of the implicit network into nbArc/nbHead.
+    private void expand(int u) {
+        nbCount = 0;
+        if (u == source || u == sink) {
+            int kind = u == source ? m + n : m + 2 * n;
+            for (int t = 0; t < horizon; t++) {
+                int offset = slotOf(t) * block + kind;
+                for (int s = 0; s < n; s++) {
+                    int arc = offset + s;
+                    if (u == source && capacity(arc) - flow[arc] > 0) emit(arc << 1, t * n + s);
+                    else if (u == sink && flow[arc] > 0) emit(arc << 1 | 1, t * n + s);
+                }
+            }
+            return;
+        }
+        int s = u % n;
+        int t = u / n;
+        int offset = slotOf(t) * block;
+        for (int i = outStart[s]; i < outStart[s + 1]; i++) {
+            int l = outLanes[i];
+            if (laneCap[l] - flow[offset + l] > 0) emit((offset + l) << 1, t * n + laneTo[l]);
+        }
+        for (int i = inStart[s]; i < inStart[s + 1]; i++) {
+            int l = inLanes[i];
+            if (flow[offset + l] > 0) emit((offset + l) << 1 | 1, t * n + laneFrom[l]);
+        }
+        if (t + 1 < horizon && suppliers[s].maxCapacity() - flow[offset + m + s] > 0) {
+            emit((offset + m + s) << 1, u + n);
+        }
+        if (t > 0) {
+            int hold = slotOf(t - 1) * block + m + s;
+            if (flow[hold] > 0) emit(hold << 1 | 1, u - n);
+        }
+        if (demand[slotOf(t) * n + s] - flow[offset + m + 2 * n + s] > 0) emit((offset + m + 2 * n + s) << 1, sink);
+        if (flow[offset + m + n + s] > 0) emit((offset + m + n + s) << 1 | 1, source);
+    }
+
+    // Dijkstra over reduced costs; updates potentials and returns true if the sink is reachable.
+    private boolean shortestPath() {
+        Arrays.fill(dist, INF);
+        Arrays.fill(parentArc, -1);
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        dist[source] = 0;
+        queue.add(new long[]{0, source});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > dist[u]) continue;
+            expand(u);
+            for (int i = 0; i < nbCount; i++) {
+                int v = nbHead[i];
+                long newCost = dist[u] + cost(nbArc[i]) + potential[u] - potential[v];
+                if (newCost < dist[v]) {
+                    dist[v] = newCost;
+                    parentArc[v] = nbArc[i];
+                    parentNode[v] = u;
+                    queue.add(new long[]{newCost, v});
+                }
+            }
+        }
+        if (dist[sink] == INF) return false;
+
+        // Unreached nodes are shifted by the largest distance so reduced costs stay non-negative
+        long farthest = 0;
+        for (long d : dist) if (d < INF) farthest = Math.max(farthest, d);
+        for (int v = 0; v < nodeCount; v++) potential[v] += dist[v] < INF ? dist[v] : farthest;
+        return true;
+    }
+
+    private void augment() {
+        int bottleneck = Integer.MAX_VALUE;
+        for (int v = sink; v != source; v = parentNode[v]) bottleneck = Math.min(bottleneck, residual(parentArc[v]));
+        for (int v = sink; v != source; v = parentNode[v]) push(parentArc[v], bottleneck);
+    }
+
+    // Label-correcting pass seeded with the previous potentials; cancels negative cycles it finds.
+    private void repairPotentials() {
+        int cycleNode;
+        while ((cycleNode = findNegativeCycle()) >= 0) cancelCycle(cycleNode);
+    }
+
+    private int findNegativeCycle() {
+        int[] relaxations = new int[nodeCount];
+        boolean[] queued = new boolean[nodeCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        Arrays.fill(parentNode, -1);
+        for (int v = 0; v < nodeCount; v++) {
+            queue.add(v);
+            queued[v] = true;
+        }
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            queued[u] = false;
+            expand(u);
+            for (int i = 0; i < nbCount; i++) {
+                int v = nbHead[i];
+                long newLabel = potential[u] + cost(nbArc[i]);
+                if (newLabel < potential[v]) {
+                    potential[v] = newLabel;
+                    parentArc[v] = nbArc[i];
+                    parentNode[v] = u;
+                    if (++relaxations[v] >= nodeCount && onParentCycle(v)) return v;
+                    if (!queued[v]) {
+                        queue.add(v);
+                        queued[v] = true;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    // True if walking parent links from v never reaches a root, i.e. ends on a (negative) cycle.
+    private boolean onParentCycle(int v) {
+        int x = v;
+        for (int i = 0; i < nodeCount && x >= 0; i++) x = parentNode[x];
+        return x >= 0;
+    }
+
+    private void cancelCycle(int v) {
+        int x = v;
+        for (int i = 0; i < nodeCount; i++) x = parentNode[x];
+        int bottleneck = Integer.MAX_VALUE;
+        int u = x;
+        do {
+            bottleneck = Math.min(bottleneck, residual(parentArc[u]));
+            u = parentNode[u];
+        } while (u != x);
+        u = x;
+        do {
+            push(parentArc[u], bottleneck);
+            u = parentNode[u];
+        } while (u != x);
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
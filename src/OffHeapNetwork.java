@@ -0,0 +1,560 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Distribution network stored outside the Java heap.
+ * -
+ * Suppliers are dense node ids and transporters are dense lane ids.
+ * Topology is kept in compressed sparse row form: each arc has a head,
+ * capacity, cost, flow, and twin (reverse) arc, all held in primitive
+ * columns backed by direct or memory-mapped buffers instead of
+ * Supplier/Transporter/Edge objects. Two extra nodes act as the super source
+ * and super sink used by {@link #allocateForDemand()}, wired the same way as
+ * {@link SimpleAllocator#allocateForDemand}.
+ * -
+ * A network built with a file path is mapped from that file and can be
+ * reopened with {@link #open(Path)}; otherwise it lives in direct memory.
+ * Columns are split into chunks so a single column may exceed 2 GB.
+ * The search scratch space (distances, heap, queue) is off-heap as well,
+ * so the heap footprint is independent of network size.
+ * -
+ * Columns use NIO buffers rather than java.lang.foreign.MemorySegment: the
+ * project is set to JDK 19, where that API is a preview feature that needs
+ * --enable-preview to compile and run, and class files built with it run only
+ * on that exact release. Only IntColumn and LongColumn would change to use it.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class OffHeapNetwork implements Closeable {
+    /** File format marker. */
+    private static final long MAGIC = 0x4F4646484541504EL;
+    /** Bytes reserved for the file header. */
+    private static final int HEADER_BYTES = 64;
+    /** Largest chunk of a column, in bytes (must fit a ByteBuffer). */
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    // Arc kinds stored in the lane column.
+    private static final int SUPER_ARC = -1;
+    private static final int REVERSE_ARC = -2;
+
+    private final int nodes;
+    private final int lanes;
+    private final int arcs;
+    private final int superSource;
+    private final int superSink;
+    private final FileChannel channel;
+
+    // Columns
+    private final IntColumn offsets;
+    private final IntColumn head, capacity, cost, flow, twin, lane;
+    private final IntColumn laneArc;
+    private final IntColumn demand, inventory;
+
+    // Scratch space, allocated on first use
+    private LongColumn dist;
+    private IntColumn parentArc, heap, heapPos, stamp;
+    private int round;
+
+    private OffHeapNetwork(int nodes, int lanes, int arcs, FileChannel channel, boolean load) throws IOException {
+        this.nodes = nodes;
+        this.lanes = lanes;
+        this.arcs = arcs;
+        this.superSource = nodes;
+        this.superSink = nodes + 1;
+        this.channel = channel;
+        long at = HEADER_BYTES;
+        offsets = new IntColumn(nodes + 3, channel, at);
+        at += offsets.bytes();
+        head = new IntColumn(arcs, channel, at);
+        at += head.bytes();
+        capacity = new IntColumn(arcs, channel, at);
+        at += capacity.bytes();
+        cost = new IntColumn(arcs, channel, at);
+        at += cost.bytes();
+        flow = new IntColumn(arcs, channel, at);
+        at += flow.bytes();
+        twin = new IntColumn(arcs, channel, at);
+        at += twin.bytes();
+        lane = new IntColumn(arcs, channel, at);
+        at += lane.bytes();
+        laneArc = new IntColumn(lanes, channel, at);
+        at += laneArc.bytes();
+        demand = new IntColumn(nodes, channel, at);
+        at += demand.bytes();
+        inventory = new IntColumn(nodes, channel, at);
+        if (channel != null && !load) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+            header.putLong(MAGIC).putInt(nodes).putInt(lanes).putInt(arcs).flip();
+            channel.write(header, 0);
+        }
+    }
+
+    /**
+     * Start building an off-heap network.
+     * @param nodes number of suppliers
+     * @param lanes number of transporters that will be added
+     * @param file file to map the network into, or null for direct memory
+     * @return the builder
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public static Builder builder(int nodes, int lanes, Path file) throws IOException {
+        return new Builder(nodes, lanes, file);
+    }
+
+    /**
+     * Build an off-heap network from the object model.
+     * Suppliers are interned by identity ({@link SupplierRegistry}): node ids
+     * follow the iteration order of suppliers, then transporter endpoints
+     * missing from them (which have no supply or demand, as in SimpleAllocator).
+     * Lane ids follow the iteration order of transporters.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param file file to map the network into, or null for direct memory
+     * @return the network
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public static OffHeapNetwork of(Collection<Supplier> suppliers,
+                                    Collection<Transporter> transporters,
+                                    Path file) throws IOException {
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        int supplierCount = registry.size();
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+        Builder builder = builder(registry.size(), transporters.size(), file);
+        for (int node = 0; node < supplierCount; node++) {
+            builder.setSupplier(node, registry.demand(node), registry.inventory(node));
+        }
+        for (Transporter transporter : transporters) {
+            builder.addLane(registry.id(transporter.from()), registry.id(transporter.to()),
+                    transporter.maxCapacity(), transporter.costPerUnit());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reopen a file-backed network, including any flows stored in it.
+     * @param file the file written by a builder
+     * @return the network
+     * @throws IOException if the file cannot be read or is not a network file
+     */
+    public static OffHeapNetwork open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 20 || header.getLong() != MAGIC) {
+            channel.close();
+            throw new IOException("Not an off-heap network file: " + file);
+        }
+        return new OffHeapNetwork(header.getInt(), header.getInt(), header.getInt(), channel, true);
+    }
+
+    // ========= PRIMARY METHODS (BELOW) =========
+
+    /**
+     * Cheapest path by lane cost (Dijkstra), as {@link SimpleAllocator#cheapestPath}.
+     * @param source source node
+     * @param destination destination node
+     * @return lane ids from source to destination; empty if unreachable
+     */
+    public int[] cheapestPath(int source, int destination) {
+        ensureScratch();
+        int total = nodes + 2;
+        for (int v = 0; v < total; v++) {
+            dist.set(v, Long.MAX_VALUE);
+            parentArc.set(v, -1);
+            heapPos.set(v, -1);
+        }
+        int size = 0;
+        dist.set(source, 0);
+        size = heapPush(size, source);
+        while (size > 0) {
+            int current = heap.get(0);
+            size = heapPop(size);
+            if (current == destination) break;
+            long base = dist.get(current);
+            for (int a = offsets.get(current), end = offsets.get(current + 1); a < end; a++) {
+                if (lane.get(a) < 0) continue;
+                int next = head.get(a);
+                long newCost = base + cost.get(a);
+                if (newCost < dist.get(next)) {
+                    dist.set(next, newCost);
+                    parentArc.set(next, a);
+                    if (heapPos.get(next) < 0) size = heapPush(size, next);
+                    else siftUp(heapPos.get(next), next);
+                }
+            }
+        }
+
+        // Rebuild the lane sequence from the destination back to the source
+        int length = 0;
+        for (int v = destination; v != source && parentArc.get(v) >= 0; v = tail(parentArc.get(v))) length++;
+        int[] path = new int[length];
+        for (int v = destination, i = length - 1; i >= 0; v = tail(parentArc.get(v)), i--) {
+            path[i] = lane.get(parentArc.get(v));
+        }
+        return path;
+    }
+
+    /**
+     * Maximum flow from manufacturers to distributors using breadth-first
+     * augmenting paths, as {@link SimpleAllocator#allocateForDemand}.
+     * Flows are stored in the network; read them with {@link #allocation(int)}.
+     * @return total units delivered to demand
+     */
+    public long allocateForDemand() {
+        ensureScratch();
+        resetFlows();
+        long delivered = 0;
+        while (findAugPath()) {
+            int bottleneck = Integer.MAX_VALUE;
+            for (int v = superSink; v != superSource; ) {
+                int a = parentArc.get(v);
+                bottleneck = Math.min(bottleneck, capacity.get(a) - flow.get(a));
+                v = tail(a);
+            }
+            for (int v = superSink; v != superSource; ) {
+                int a = parentArc.get(v);
+                flow.set(a, flow.get(a) + bottleneck);
+                int t = twin.get(a);
+                flow.set(t, flow.get(t) - bottleneck);
+                v = head.get(t);
+            }
+            delivered += bottleneck;
+        }
+        return delivered;
+    }
+
+    /**
+     * @param laneId lane id
+     * @return units currently allocated to the lane
+     */
+    public int allocation(int laneId) {
+        return flow.get(laneArc.get(laneId));
+    }
+
+    /**
+     * @return number of supplier nodes
+     */
+    public int nodes() { return nodes; }
+
+    /**
+     * @return number of lanes
+     */
+    public int lanes() { return lanes; }
+
+    /**
+     * Flush a file-backed network and release the file.
+     * Off-heap memory is returned once the network is no longer referenced.
+     * @throws IOException if the file cannot be flushed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            for (IntColumn column : new IntColumn[]{offsets, head, capacity, cost, flow, twin, lane,
+                    laneArc, demand, inventory}) {
+                column.force();
+            }
+            channel.close();
+        }
+    }
+    // ========= PRIMARY METHODS (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private int tail(int arc) {
+        return head.get(twin.get(arc));
+    }
+
+    private void resetFlows() {
+        for (int a = 0; a < arcs; a++) flow.set(a, 0);
+    }
+
+    private void ensureScratch() {
+        if (dist != null) return;
+        int total = nodes + 2;
+        dist = new LongColumn(total);
+        parentArc = new IntColumn(total);
+        heap = new IntColumn(total);
+        heapPos = new IntColumn(total);
+        stamp = new IntColumn(total);
+    }
+
+    // Breadth-first search over residual arcs; the heap column doubles as the queue.
+    private boolean findAugPath() {
+        round++;
+        int readAt = 0;
+        int writeAt = 0;
+        heap.set(writeAt++, superSource);
+        stamp.set(superSource, round);
+        while (readAt < writeAt) {
+            int current = heap.get(readAt++);
+            for (int a = offsets.get(current), end = offsets.get(current + 1); a < end; a++) {
+                int next = head.get(a);
+                if (stamp.get(next) == round || capacity.get(a) - flow.get(a) <= 0) continue;
+                stamp.set(next, round);
+                parentArc.set(next, a);
+                if (next == superSink) return true;
+                heap.set(writeAt++, next);
+            }
+        }
+        return false;
+    }
+
+    private int heapPush(int size, int node) {
+        heap.set(size, node);
+        heapPos.set(node, size);
+        siftUp(size, node);
+        return size + 1;
+    }
+
+    private void siftUp(int at, int node) {
+        long key = dist.get(node);
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            int other = heap.get(parent);
+            if (dist.get(other) <= key) break;
+            heap.set(at, other);
+            heapPos.set(other, at);
+            at = parent;
+        }
+        heap.set(at, node);
+        heapPos.set(node, at);
+    }
+
+    private int heapPop(int size) {
+        int top = heap.get(0);
+        heapPos.set(top, -2);
+        int last = heap.get(--size);
+        if (size > 0) {
+            long key = dist.get(last);
+            int at = 0;
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) break;
+                if (child + 1 < size && dist.get(heap.get(child + 1)) < dist.get(heap.get(child))) child++;
+                int other = heap.get(child);
+                if (dist.get(other) >= key) break;
+                heap.set(at, other);
+                heapPos.set(other, at);
+                at = child;
+            }
+            heap.set(at, last);
+            heapPos.set(last, at);
+        }
+        return size;
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+
+    /**
+     * Collects suppliers and lanes, then lays them out in CSR form.
+     */
+    public static final class Builder {
+        private final int nodes;
+        private final int lanes;
+        private final Path file;
+        private final IntColumn from, to, cap, unitCost;
+        private final IntColumn demand, inventory;
+        private int added;
+
+        private Builder(int nodes, int lanes, Path file) {
+            this.nodes = nodes;
+            this.lanes = lanes;
+            this.file = file;
+            from = new IntColumn(lanes);
+            to = new IntColumn(lanes);
+            cap = new IntColumn(lanes);
+            unitCost = new IntColumn(lanes);
+            demand = new IntColumn(nodes);
+            inventory = new IntColumn(nodes);
+        }
+
+        /**
+         * Set the demand and inventory of a supplier node.
+         * @param node node id
+         * @param demand demand (negative for manufacturers)
+         * @param inventory inventory on hand
+         * @return this builder
+         */
+        public Builder setSupplier(int node, int demand, int inventory) {
+            this.demand.set(node, demand);
+            this.inventory.set(node, inventory);
+            return this;
+        }
+
+        /**
+         * Add the next lane.
+         * @param fromNode source node id
+         * @param toNode destination node id
+         * @param maxCapacity maximum units the lane can carry
+         * @param costPerUnit cost per unit shipped
+         * @return the lane id
+         */
+        public int addLane(int fromNode, int toNode, int maxCapacity, int costPerUnit) {
+            if (added == lanes) throw new IllegalStateException("More lanes added than declared");
+            from.set(added, fromNode);
+            to.set(added, toNode);
+            cap.set(added, maxCapacity);
+            unitCost.set(added, costPerUnit);
+            return added++;
+        }
+
+        /**
+         * Lay out the network.
+         * @return the network
+         * @throws IOException if the backing file cannot be written
+         */
+        public OffHeapNetwork build() throws IOException {
+            if (added != lanes) throw new IllegalStateException(added + " of " + lanes + " lanes added");
+            int superSource = nodes;
+            int superSink = nodes + 1;
+            long arcCount = 2L * (lanes + nodes);
+            if (arcCount > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many arcs: " + arcCount);
+            FileChannel channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            OffHeapNetwork network = new OffHeapNetwork(nodes, lanes, (int) arcCount, channel, false);
+
+            // Count arcs per node: each lane and super arc adds a forward arc and a reverse arc
+            IntColumn offsets = network.offsets;
+            for (int l = 0; l < lanes; l++) {
+                increment(offsets, from.get(l) + 1);
+                increment(offsets, to.get(l) + 1);
+            }
+            for (int s = 0; s < nodes; s++) {
+                increment(offsets, s + 1);
+                increment(offsets, (demand.get(s) <= 0 ? superSource : superSink) + 1);
+            }
+            for (int v = 0; v < nodes + 2; v++) offsets.set(v + 1, offsets.get(v + 1) + offsets.get(v));
+
+            // Fill arcs using a moving cursor per node
+            IntColumn cursor = new IntColumn(nodes + 2);
+            for (int v = 0; v < nodes + 2; v++) cursor.set(v, offsets.get(v));
+            for (int l = 0; l < lanes; l++) {
+                int arc = network.place(cursor, from.get(l), to.get(l), cap.get(l), unitCost.get(l), l);
+                network.laneArc.set(l, arc);
+            }
+            for (int s = 0; s < nodes; s++) {
+                int need = demand.get(s);
+                network.demand.set(s, need);
+                network.inventory.set(s, inventory.get(s));
+                // Manufacturers and depots are fed by the super source with their surplus; distributors drain to the sink
+                if (need <= 0) network.place(cursor, superSource, s, inventory.get(s) - need, 0, SUPER_ARC);
+                else network.place(cursor, s, superSink, need, 0, SUPER_ARC);
+            }
+            return network;
+        }
+
+        private static void increment(IntColumn column, int index) {
+            column.set(index, column.get(index) + 1);
+        }
+    }
+
+    // Write a forward arc and its reverse arc; returns the forward arc index.
+    private int place(IntColumn cursor, int tail, int headNode, int maxCapacity, int unitCost, int laneId) {
+        int forward = cursor.get(tail);
+        cursor.set(tail, forward + 1);
+        int reverse = cursor.get(headNode);
+        cursor.set(headNode, reverse + 1);
+        head.set(forward, headNode);
+        capacity.set(forward, maxCapacity);
+        cost.set(forward, unitCost);
+        twin.set(forward, reverse);
+        lane.set(forward, laneId);
+        head.set(reverse, tail);
+        capacity.set(reverse, 0);
+        cost.set(reverse, -unitCost);
+        twin.set(reverse, forward);
+        lane.set(reverse, REVERSE_ARC);
+        return forward;
+    }
+
+    /** Chunked int column over direct or mapped memory. */
+    private static final class IntColumn {
+        private static final int SHIFT = 28;
+        private static final int MASK = (1 << SHIFT) - 1;
+        private final long length;
+        private final IntBuffer[] chunks;
+        private final ByteBuffer[] raw;
+
+        private IntColumn(long length) {
+            this(length, null, 0);
+        }
+
+        private IntColumn(long length, FileChannel channel, long position) {
+            this.length = length;
+            int count = (int) ((length + MASK) >>> SHIFT);
+            chunks = new IntBuffer[Math.max(count, 1)];
+            raw = new ByteBuffer[chunks.length];
+            for (int c = 0; c < chunks.length; c++) {
+                long ints = Math.min(1L << SHIFT, length - ((long) c << SHIFT));
+                long bytes = Math.max(ints, 0) * Integer.BYTES;
+                raw[c] = map(channel, position + ((long) c << SHIFT) * Integer.BYTES, bytes);
+                chunks[c] = raw[c].asIntBuffer();
+            }
+        }
+
+        private int get(long i) {
+            return chunks[(int) (i >>> SHIFT)].get((int) (i & MASK));
+        }
+
+        private void set(long i, int value) {
+            chunks[(int) (i >>> SHIFT)].put((int) (i & MASK), value);
+        }
+
+        private long bytes() {
+            return (length * Integer.BYTES + 7) & ~7L;
+        }
+
+        private void force() {
+            for (ByteBuffer buffer : raw) {
+                if (buffer instanceof java.nio.MappedByteBuffer) ((java.nio.MappedByteBuffer) buffer).force();
+            }
+        }
+    }
+
+    /** Chunked long column over direct memory. */
+    private static final class LongColumn {
+        private static final int SHIFT = 27;
+        private static final int MASK = (1 << SHIFT) - 1;
+        private final LongBuffer[] chunks;
+
+        private LongColumn(long length) {
+            int count = (int) ((length + MASK) >>> SHIFT);
+            chunks = new LongBuffer[Math.max(count, 1)];
+            for (int c = 0; c < chunks.length; c++) {
+                long longs = Math.min(1L << SHIFT, length - ((long) c << SHIFT));
+                chunks[c] = map(null, 0, Math.max(longs, 0) * Long.BYTES).asLongBuffer();
+            }
+        }
+
+        private long get(long i) {
+            return chunks[(int) (i >>> SHIFT)].get((int) (i & MASK));
+        }
+
+        private void set(long i, long value) {
+            chunks[(int) (i >>> SHIFT)].put((int) (i & MASK), value);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long bytes) {
+        if (bytes > CHUNK_BYTES) throw new IllegalArgumentException("Chunk too large: " + bytes);
+        try {
+            ByteBuffer buffer = channel == null
+                    ? ByteBuffer.allocateDirect((int) bytes)
+                    : channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+            return buffer.order(ByteOrder.nativeOrder());
+        } catch (IOException ex) {
+            throw new java.io.UncheckedIOException(ex);
+        }
+    }
+}
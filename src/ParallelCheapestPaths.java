@@ -0,0 +1,295 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Full single-source cheapest-cost trees computed with parallel delta-stepping.
+ * -
+ * Suppliers are kept in buckets of width delta by tentative cost. The lowest
+ * bucket is settled by repeatedly relaxing its light lanes (cost at most delta)
+ * in parallel until it stops changing; the heavy lanes of everything settled
+ * in the bucket are then relaxed in parallel, and the next bucket is taken.
+ * Relaxations run on a fork-join pool and lower a full 64-bit cost per
+ * supplier with compare-and-set.
+ * -
+ * Previous lanes are settled once all costs are final: each supplier takes the
+ * lowest-index lane (iteration order of the transporters) with a positive cost
+ * that reaches it at its cheapest cost. Suppliers reached only through
+ * zero-cost lanes are then linked by a breadth-first pass over those lanes in
+ * index order, which keeps the tree acyclic. The tree therefore never depends
+ * on thread scheduling.
+ * -
+ * Costs match {@link SimpleAllocator#cheapestPath}. Lane costs must be
+ * non-negative; as they are ints, no cheapest path cost can exceed a long.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class ParallelCheapestPaths {
+    private static final long UNREACHED = Long.MAX_VALUE;
+    /** Frontier size below which a phase runs on the calling thread. */
+    private static final int PARALLEL_FRONTIER = 1024;
+
+    private final SupplierRegistry registry;
+    private final Transporter[] lanes;
+    private final int[] laneFrom;
+    private final long[] cost;
+    private final int[] previousLane;
+
+    /**
+     * Compute the cheapest cost from source to every supplier on the common pool.
+     * @param suppliers the suppliers
+     * @param transporters the transporters (lanes)
+     * @param source the source supplier
+     * @return the cheapest-cost tree
+     */
+    public static ParallelCheapestPaths from(Collection<Supplier> suppliers,
+                                             Collection<Transporter> transporters,
+                                             Supplier source) {
+        return from(suppliers, transporters, source, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * Compute the cheapest cost from source to every supplier.
+     * @param suppliers the suppliers
+     * @param transporters the transporters (lanes)
+     * @param source the source supplier
+     * @param pool the fork-join pool that runs the relaxation phases
+     * @param delta bucket width; 0 picks one from the lane costs and average degree
+     * @return the cheapest-cost tree
+     */
+    public static ParallelCheapestPaths from(Collection<Supplier> suppliers,
+                                             Collection<Transporter> transporters,
+                                             Supplier source,
+                                             ForkJoinPool pool,
+                                             long delta) {
+        ParallelCheapestPaths tree = new ParallelCheapestPaths(suppliers, transporters, source);
+        tree.solve(tree.registry.id(source), pool, delta);
+        return tree;
+    }
+
+    // Network in CSR form
+    private int[] outStart, outLanes, laneTo;
+    private long[] laneCost;
+
+    private ParallelCheapestPaths(Collection<Supplier> suppliers, Collection<Transporter> transporters,
+                                  Supplier source) {
+        registry = SupplierRegistry.of(suppliers);
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+        registry.intern(source);
+        int n = registry.size();
+        lanes = transporters.toArray(new Transporter[0]);
+        int m = lanes.length;
+        laneFrom = new int[m];
+        laneTo = new int[m];
+        laneCost = new long[m];
+        outStart = new int[n + 1];
+        for (int l = 0; l < m; l++) {
+            laneFrom[l] = registry.id(lanes[l].from());
+            laneTo[l] = registry.id(lanes[l].to());
+            laneCost[l] = lanes[l].costPerUnit();
+            if (laneCost[l] < 0) throw new IllegalArgumentException("Negative cost on " + lanes[l].name());
+            outStart[laneFrom[l] + 1]++;
+        }
+        for (int v = 0; v < n; v++) outStart[v + 1] += outStart[v];
+        outLanes = new int[m];
+        int[] fill = Arrays.copyOf(outStart, n);
+        for (int l = 0; l < m; l++) outLanes[fill[laneFrom[l]]++] = l;
+        cost = new long[n];
+        previousLane = new int[n];
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * @param supplier a supplier
+     * @return cheapest cost from the source, or -1 if unreachable
+     */
+    public long cost(Supplier supplier) {
+        int v = registry.id(supplier);
+        if (v < 0 || cost[v] == UNREACHED) return -1;
+        return cost[v];
+    }
+
+    /**
+     * @param supplier a supplier
+     * @return the last transporter on the cheapest path to the supplier, or null
+     */
+    public Transporter previous(Supplier supplier) {
+        int v = registry.id(supplier);
+        if (v < 0 || previousLane[v] < 0) return null;
+        return lanes[previousLane[v]];
+    }
+
+    /**
+     * @param supplier a supplier
+     * @return transporters of the cheapest path from the source; empty if unreachable
+     */
+    public List<Transporter> path(Supplier supplier) {
+        List<Transporter> path = new ArrayList<>();
+        int v = registry.id(supplier);
+        if (v < 0 || cost[v] == UNREACHED) return path;
+        for (int lane = previousLane[v]; lane >= 0; lane = previousLane[laneFrom[lane]]) {
+            path.add(lanes[lane]);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private void solve(int source, ForkJoinPool pool, long delta) {
+        int n = cost.length;
+        long maxCost = 0;
+        for (long c : laneCost) maxCost = Math.max(maxCost, c);
+        if (delta <= 0) delta = Math.max(1, maxCost / Math.max(1, laneCost.length / Math.max(1, n)));
+        final long width = delta;
+
+        AtomicLongArray tentative = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) tentative.set(v, UNREACHED);
+        tentative.set(source, 0);
+
+        // Bucket index -> suppliers (possibly stale; filtered when the bucket is taken)
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        buckets.computeIfAbsent(0L, b -> new IntList()).add(source);
+        int[] stamp = new int[n];
+        int phase = 0;
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> entry = buckets.pollFirstEntry();
+            long bucket = entry.getKey();
+            phase++;
+            IntList frontier = new IntList();
+            for (int i = 0; i < entry.getValue().size; i++) {
+                int v = entry.getValue().items[i];
+                if (tentative.get(v) / width == bucket && stamp[v] != phase) {
+                    stamp[v] = phase;
+                    frontier.add(v);
+                }
+            }
+
+            // Light lanes until the bucket is stable; suppliers re-entering it are relaxed again
+            IntList settled = new IntList();
+            while (frontier.size > 0) {
+                settled.addAll(frontier);
+                int[] updated = relax(pool, tentative, frontier, width, true);
+                frontier = new IntList();
+                phase++;
+                for (int v : updated) {
+                    long b = tentative.get(v) / width;
+                    if (b == bucket) {
+                        if (stamp[v] != phase) {
+                            stamp[v] = phase;
+                            frontier.add(v);
+                        }
+                    } else {
+                        buckets.computeIfAbsent(b, k -> new IntList()).add(v);
+                    }
+                }
+            }
+
+            // Heavy lanes once, from each supplier settled in this bucket
+            phase++;
+            IntList unique = new IntList();
+            for (int i = 0; i < settled.size; i++) {
+                int v = settled.items[i];
+                if (stamp[v] != phase) {
+                    stamp[v] = phase;
+                    unique.add(v);
+                }
+            }
+            for (int v : relax(pool, tentative, unique, width, false)) {
+                buckets.computeIfAbsent(tentative.get(v) / width, k -> new IntList()).add(v);
+            }
+        }
+        for (int v = 0; v < n; v++) cost[v] = tentative.get(v);
+        settlePreviousLanes(source, pool);
+    }
+
+    // Relax light (cost <= width) or heavy lanes out of the frontier; returns suppliers whose cost dropped.
+    private int[] relax(ForkJoinPool pool, AtomicLongArray tentative, IntList frontier, long width, boolean light) {
+        IntStream nodes = IntStream.range(0, frontier.size).map(i -> frontier.items[i]);
+        if (frontier.size < PARALLEL_FRONTIER) return relaxFrom(nodes, tentative, width, light).toArray();
+        return pool.submit(() -> relaxFrom(nodes.parallel(), tentative, width, light).toArray()).join();
+    }
+
+    private IntStream relaxFrom(IntStream nodes, AtomicLongArray tentative, long width, boolean light) {
+        return nodes.flatMap(u -> {
+            long base = tentative.get(u);
+            IntList changed = new IntList();
+            for (int a = outStart[u]; a < outStart[u + 1]; a++) {
+                int l = outLanes[a];
+                if ((laneCost[l] <= width) != light) continue;
+                int v = laneTo[l];
+                long candidate = base + laneCost[l];
+                while (true) {
+                    long current = tentative.get(v);
+                    if (candidate >= current) break;
+                    if (tentative.compareAndSet(v, current, candidate)) {
+                        changed.add(v);
+                        break;
+                    }
+                }
+            }
+            return IntStream.range(0, changed.size).map(i -> changed.items[i]);
+        });
+    }
+
+    // Previous lane of each supplier from the final costs, independent of the relaxation order.
+    private void settlePreviousLanes(int source, ForkJoinPool pool) {
+        int n = cost.length;
+        int m = laneCost.length;
+        AtomicIntegerArray lowest = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) lowest.set(v, Integer.MAX_VALUE);
+        // Lowest-index tight lane with a positive cost; such lanes cannot form a cycle
+        IntStream tight = IntStream.range(0, m).filter(l -> laneCost[l] > 0 && cost[laneFrom[l]] != UNREACHED
+                && cost[laneFrom[l]] + laneCost[l] == cost[laneTo[l]]);
+        Runnable keepLowest = () -> (m < PARALLEL_FRONTIER ? tight : tight.parallel()).forEach(l -> {
+            int v = laneTo[l];
+            int current = lowest.get(v);
+            while (l < current && !lowest.compareAndSet(v, current, l)) current = lowest.get(v);
+        });
+        if (m < PARALLEL_FRONTIER) keepLowest.run(); else pool.submit(keepLowest).join();
+
+        boolean[] linked = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            previousLane[v] = lowest.get(v) == Integer.MAX_VALUE ? -1 : lowest.get(v);
+            linked[v] = v == source || previousLane[v] >= 0;
+        }
+        // Suppliers left are reached at their cost only through free lanes from linked suppliers
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int v = 0; v < n; v++) if (linked[v] && cost[v] != UNREACHED) queue[tail++] = v;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = outStart[u]; a < outStart[u + 1]; a++) {
+                int l = outLanes[a];
+                int v = laneTo[l];
+                if (laneCost[l] != 0 || linked[v] || cost[v] != cost[u]) continue;
+                linked[v] = true;
+                previousLane[v] = l;
+                queue[tail++] = v;
+            }
+        }
+    }
+
+    /** Minimal growable int list. */
+    private static final class IntList {
+        private int[] items = new int[8];
+        private int size;
+
+        private void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+
+        private void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) add(other.items[i]);
+        }
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
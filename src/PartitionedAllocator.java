@@ -0,0 +1,668 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+/**
+ * Coordinator for allocating demand over a network split into regions,
+ * each held by a {@link RegionWorker} in its own JVM.
+ * -
+ * Transporters inside a region live only in that region's worker.
+ * Transporters that cross regions (boundary lanes) live in the coordinator,
+ * and their endpoints are the regions' portals. The flow is found by
+ * push-relabel, with the regions working locally between exchanges:
+ * - workers start with their super source arcs full;
+ * - PUSH rounds: each worker pushes and relabels until every unit of excess
+ *   in the region has reached the sink, gone back to the source or crossed a
+ *   boundary lane; the coordinator hands the crossing units and the portal
+ *   labels to the regions at the far end, until a round moves nothing across
+ *   the boundary;
+ * - a LABEL round before every fourth PUSH round: each worker reports the
+ *   residual distances from its portals to its other portals, the sink and
+ *   the source, and the coordinator sets every portal's exact label with
+ *   Dijkstra over those and the residual boundary lanes (global relabeling);
+ * - RETURN rounds, only if the PUSH rounds hit their limit: excess still
+ *   held is sent back along the flow that brought it.
+ * Each round is one request to every worker at once, so a round costs one
+ * round trip however much flow it moves.
+ * -
+ * Labels seen across the boundary may be a round old, so the flow is not
+ * certified maximum by push-relabel alone. Ford-Fulkerson on a condensed
+ * graph repairs it to the same maximum flow as
+ * {@link SimpleAllocator#allocateForDemand}:
+ * - each worker reports which of its portals reach which others through its
+ *   residual graph (including from the super source and to the super sink);
+ * - the coordinator runs a breadth-first search over those reachability edges
+ *   plus the residual boundary lanes;
+ * - each worker routes its segments of the condensed path, and the flow is
+ *   pushed by the smallest reported bottleneck.
+ * Because the condensed path is a shortest one, two segments in the same
+ * region can never share a node (otherwise a shorter condensed path would
+ * exist), so the regions can route their segments independently.
+ * After push-relabel this usually ends with the first search.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class PartitionedAllocator {
+    /** Limit on PUSH rounds, per node of the network. */
+    private static final int PUSH_ROUNDS_PER_NODE = 2;
+    /** PUSH rounds between global relabels. */
+    private static final int RELABEL_INTERVAL = 4;
+
+    /** Hide constructor of this utility class. */
+    private PartitionedAllocator() { }
+
+    /**
+     * Allocate for demand using one worker per region.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param regionOf region (worker index) of each supplier
+     * @param workers loopback (or remote) addresses of listening workers
+     * @return the transporters with their allocations, as {@link SimpleAllocator#allocateForDemand}
+     * @throws IOException if a worker connection fails
+     */
+    public static Collection<Transporter> allocateForDemand(Collection<Supplier> suppliers,
+                                                            Collection<Transporter> transporters,
+                                                            Map<Supplier, Integer> regionOf,
+                                                            List<InetSocketAddress> workers) throws IOException {
+        Collection<Transporter> allocation = new ArrayList<>();
+        if (suppliers == null || transporters == null) return allocation;
+        int regions = workers.size();
+
+        // Region and local node id of every supplier, by registry id
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        int[] regionOfId = new int[registry.size()];
+        int[] localId = new int[registry.size()];
+        List<List<Integer>> regionNodes = new ArrayList<>();
+        for (int r = 0; r < regions; r++) regionNodes.add(new ArrayList<>());
+        for (int id = 0; id < registry.size(); id++) {
+            Integer region = regionOf.get(registry.supplier(id));
+            if (region == null) throw new IllegalArgumentException("No region for " + registry.supplier(id).name());
+            if (region < 0 || region >= regions) {
+                throw new IllegalArgumentException("Region " + region + " of " + registry.supplier(id).name()
+                        + " is not a worker index below " + regions);
+            }
+            regionOfId[id] = region;
+            localId[id] = regionNodes.get(region).size();
+            regionNodes.get(region).add(id);
+        }
+
+        // Split lanes into internal lanes and boundary lanes between portals
+        List<List<Transporter>> internal = new ArrayList<>();
+        List<Map<Integer, Integer>> portalIndex = new ArrayList<>();
+        List<List<Integer>> portalNodes = new ArrayList<>();
+        for (int r = 0; r < regions; r++) {
+            internal.add(new ArrayList<>());
+            portalIndex.add(new HashMap<>());
+            portalNodes.add(new ArrayList<>());
+        }
+        List<Transporter> boundary = new ArrayList<>();
+        for (Transporter transporter : transporters) {
+            int fromId = supplierId(registry, transporter.from());
+            int toId = supplierId(registry, transporter.to());
+            int from = regionOfId[fromId];
+            int to = regionOfId[toId];
+            if (from == to) {
+                internal.get(from).add(transporter);
+            } else {
+                boundary.add(transporter);
+                portal(portalIndex, portalNodes, from, localId[fromId]);
+                portal(portalIndex, portalNodes, to, localId[toId]);
+            }
+        }
+
+        // Condensed node ids: 0 = source, 1 = sink, then every portal of every region
+        int[] portalBase = new int[regions + 1];
+        portalBase[0] = 2;
+        for (int r = 0; r < regions; r++) portalBase[r + 1] = portalBase[r] + portalNodes.get(r).size();
+        int condensed = portalBase[regions];
+        // Ends of each boundary lane in the regions' exchange rounds; the super source is labeled with the node count
+        int labelLimit = registry.size() + 2;
+        Exchange exchange = new Exchange(boundary.size(), labelLimit, portalBase);
+        int[] boundaryFrom = new int[boundary.size()];
+        int[] boundaryTo = new int[boundary.size()];
+        List<List<Integer>> incident = new ArrayList<>();
+        for (int c = 0; c < condensed; c++) incident.add(new ArrayList<>());
+        for (int b = 0; b < boundary.size(); b++) {
+            Transporter t = boundary.get(b);
+            int fromId = registry.id(t.from());
+            int toId = registry.id(t.to());
+            int rf = regionOfId[fromId];
+            int rt = regionOfId[toId];
+            boundaryFrom[b] = portalBase[rf] + portalIndex.get(rf).get(localId[fromId]);
+            boundaryTo[b] = portalBase[rt] + portalIndex.get(rt).get(localId[toId]);
+            exchange.link(b, rf, localId[fromId], boundaryFrom[b], rt, localId[toId], boundaryTo[b], t.maxCapacity());
+            incident.get(boundaryFrom[b]).add(b);
+            incident.get(boundaryTo[b]).add(b);
+        }
+
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (InetSocketAddress address : workers) connections.add(new Connection(address));
+            for (int r = 0; r < regions; r++) {
+                connections.get(r).init(registry, regionNodes.get(r), internal.get(r), localId, portalNodes.get(r),
+                        labelLimit, exchange.entries.get(r));
+            }
+            for (Connection connection : connections) connection.awaitAck(RegionWorker.INIT);
+
+            // Push-relabel with local work between exchanges, on exact labels every few rounds
+            int rounds = 0;
+            do {
+                if (rounds % RELABEL_INTERVAL == 0) exchange.relabel(connections);
+                exchange.round(RegionWorker.PUSH, connections);
+            } while (exchange.moved && ++rounds < PUSH_ROUNDS_PER_NODE * labelLimit);
+            while (exchange.moved) exchange.round(RegionWorker.RETURN, connections);
+            int[] boundaryFlow = exchange.laneFlow;
+
+            // Ford-Fulkerson repair on the condensed graph
+            boolean[][][] reach = new boolean[regions][][];
+            boolean[] stale = new boolean[regions];
+            Arrays.fill(stale, true);
+            int[] prevNode = new int[condensed];
+            int[] prevVia = new int[condensed];
+            while (true) {
+                // Refresh reachability of regions whose residual graph changed (requests overlap across workers)
+                for (int r = 0; r < regions; r++) if (stale[r]) connections.get(r).send(RegionWorker.REACH);
+                for (int r = 0; r < regions; r++) {
+                    if (stale[r]) reach[r] = connections.get(r).readReach(portalNodes.get(r).size());
+                    stale[r] = false;
+                }
+
+                if (!condensedPath(reach, portalBase, incident, boundaryFrom, boundaryTo, boundary, boundaryFlow,
+                        prevNode, prevVia)) break;
+
+                // Collect the path's segments per region; prevVia >= 0 is a boundary lane, else region -(r + 1)
+                List<List<int[]>> segments = new ArrayList<>();
+                for (int r = 0; r < regions; r++) segments.add(new ArrayList<>());
+                int bottleneck = Integer.MAX_VALUE;
+                List<Integer> lanes = new ArrayList<>();
+                for (int v = 1; v != 0; v = prevNode[v]) {
+                    int u = prevNode[v];
+                    if (prevVia[v] >= 0) {
+                        int b = prevVia[v];
+                        lanes.add(u == boundaryFrom[b] ? b : ~b);
+                        bottleneck = Math.min(bottleneck, u == boundaryFrom[b]
+                                ? boundary.get(b).maxCapacity() - boundaryFlow[b] : boundaryFlow[b]);
+                    } else {
+                        int r = -prevVia[v] - 1;
+                        segments.get(r).add(new int[]{code(u, r, portalBase), code(v, r, portalBase)});
+                    }
+                }
+                for (int r = 0; r < regions; r++) {
+                    if (!segments.get(r).isEmpty()) connections.get(r).plan(segments.get(r));
+                }
+                for (int r = 0; r < regions; r++) {
+                    if (!segments.get(r).isEmpty()) bottleneck = Math.min(bottleneck,
+                            connections.get(r).readBottleneck(segments.get(r).size()));
+                }
+                if (bottleneck <= 0) throw new IllegalStateException("Worker reachability out of date");
+                for (int r = 0; r < regions; r++) {
+                    if (segments.get(r).isEmpty()) continue;
+                    connections.get(r).commit(bottleneck);
+                    stale[r] = true;
+                }
+                for (int r = 0; r < regions; r++) if (stale[r]) connections.get(r).awaitAck(RegionWorker.COMMIT);
+                for (int lane : lanes) {
+                    if (lane >= 0) boundaryFlow[lane] += bottleneck;
+                    else boundaryFlow[~lane] -= bottleneck;
+                }
+            }
+
+            // Gather internal lane flows and apply allocations
+            for (Connection connection : connections) connection.send(RegionWorker.FLOWS);
+            for (int r = 0; r < regions; r++) {
+                int[] flows = connections.get(r).readFlows();
+                for (int l = 0; l < flows.length; l++) {
+                    internal.get(r).get(l).setAllocation(flows[l]);
+                    allocation.add(internal.get(r).get(l));
+                }
+            }
+            for (int b = 0; b < boundary.size(); b++) {
+                boundary.get(b).setAllocation(boundaryFlow[b]);
+                allocation.add(boundary.get(b));
+            }
+        } finally {
+            for (Connection connection : connections) connection.close();
+        }
+        return allocation;
+    }
+
+    /**
+     * Assign suppliers to regions in contiguous blocks of their iteration order.
+     * @param suppliers the suppliers
+     * @param regions number of regions
+     * @return region of each supplier, keyed by identity as in {@link SupplierRegistry}
+     */
+    public static Map<Supplier, Integer> partition(Collection<Supplier> suppliers, int regions) {
+        Map<Supplier, Integer> regionOf = new IdentityHashMap<>();
+        int i = 0;
+        for (Supplier supplier : suppliers) regionOf.put(supplier, (int) ((long) i++ * regions / suppliers.size()));
+        return regionOf;
+    }
+
+    /**
+     * Start worker JVMs on this machine, each listening on a loopback port.
+     * @param count number of workers
+     * @param addresses receives the address of each worker
+     * @return the worker processes
+     * @throws IOException if a worker cannot be started
+     */
+    public static List<Process> launchLocalWorkers(int count, List<InetSocketAddress> addresses) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "RegionWorker", "0")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            processes.add(process);
+            String line = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+            if (line == null || !line.startsWith("PORT ")) {
+                for (Process started : processes) started.destroy();
+                throw new IOException("Worker did not start: " + line);
+            }
+            addresses.add(new InetSocketAddress("127.0.0.1", Integer.parseInt(line.substring(5).trim())));
+        }
+        return processes;
+    }
+
+    /**
+     * Self-check: allocate the course test network with local worker JVMs
+     * and compare the units delivered with the single-node allocator.
+     * With "random" as the first argument, instead check seeded random
+     * networks (with parallel lanes) against workers on loopback threads.
+     * @param args optional number of workers (default 3), or "random" then
+     *             optional seed (default 1) and number of networks (default 200)
+     * @throws Exception if the workers fail
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("random")) {
+            long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+            int networks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+            int mismatches = randomCheck(seed, networks);
+            System.out.println(networks + " random networks, " + mismatches + " mismatches");
+            if (mismatches > 0) System.exit(1);
+            return;
+        }
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        Supplier manufacturer1 = new Supplier("Manufacturer 1", 0, 0, 600, 1000);
+        Supplier manufacturer2 = new Supplier("Manufacturer 2", 0, 0, 600, 1000);
+        Supplier depot = new Supplier("Depot", 0, 0, 0, 750);
+        Supplier distributor1 = new Supplier("Distributor1", 1, 210, 0, 610);
+        Supplier distributor2 = new Supplier("Distributor2", 2, 220, 0, 525);
+        Supplier distributor3 = new Supplier("Distributor3", 3, 230, 0, 530);
+        Supplier distributor4 = new Supplier("Distributor4", 4, 100, 0, 440);
+        Supplier distributor5 = new Supplier("Distributor5", 5, 250, 0, 550);
+        List<Supplier> suppliers = Arrays.asList(manufacturer1, manufacturer2, depot, distributor1,
+                distributor2, distributor3, distributor4, distributor5);
+        List<Transporter> transporters = Arrays.asList(
+                new Transporter("Transporter1", manufacturer1, depot, 4, 600, 0),
+                new Transporter("Transporter2", manufacturer2, distributor1, 9, 600, 0),
+                new Transporter("Transporter3", depot, distributor1, 10, 100, 0),
+                new Transporter("Transporter4", depot, distributor2, 6, 400, 0),
+                new Transporter("Transporter5", distributor1, distributor3, 8, 400, 0),
+                new Transporter("Transporter6", distributor1, distributor5, 2, 400, 0),
+                new Transporter("Transporter7", distributor2, distributor3, 3, 100, 0),
+                new Transporter("Transporter8", distributor2, distributor4, 7, 40, 0),
+                new Transporter("Transporter9", distributor3, distributor4, 5, 90, 0));
+
+        long single = SimpleAllocator.summarize(suppliers, SimpleAllocator.allocateForDemand(suppliers, transporters))
+                .totalUnmetDemand();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        List<Process> processes = launchLocalWorkers(workers, addresses);
+        try {
+            Collection<Transporter> result = allocateForDemand(suppliers, transporters,
+                    partition(suppliers, workers), addresses);
+            long partitioned = SimpleAllocator.summarize(suppliers, result).totalUnmetDemand();
+            System.out.println(SimpleAllocator.displayAllocations(result));
+            System.out.println("Unmet demand: single node " + single + ", partitioned " + partitioned
+                    + (single == partitioned ? " (match)" : " (MISMATCH)"));
+        } finally {
+            for (Process process : processes) process.waitFor();
+        }
+    }
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    // Random networks split over RegionWorkers on loopback threads; counts those whose unmet demand
+    // differs from the single-node allocator's or whose flow the verifier does not certify maximum.
+    private static int randomCheck(long seed, int networks) throws IOException, InterruptedException {
+        Random random = new Random(seed);
+        int mismatches = 0;
+        for (int network = 0; network < networks; network++) {
+            int n = 2 + random.nextInt(30);
+            List<Supplier> suppliers = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int demand = random.nextInt(3) == 0 ? -random.nextInt(40) : random.nextInt(60);
+                suppliers.add(new Supplier("S" + i, 0, demand, random.nextInt(100), 1000));
+            }
+            List<Transporter> transporters = new ArrayList<>();
+            int lanes = random.nextInt(5 * n + 1);
+            for (int l = 0; l < lanes; l++) {
+                Supplier from = suppliers.get(random.nextInt(n));
+                Supplier to = suppliers.get(random.nextInt(n));
+                transporters.add(new Transporter("T" + l, from, to, random.nextInt(10), random.nextInt(80), 0));
+                // Some lanes get a parallel twin
+                if (random.nextInt(4) == 0) {
+                    transporters.add(new Transporter("T" + l + "'", from, to, random.nextInt(10), random.nextInt(80), 0));
+                }
+            }
+            long single = SimpleAllocator.summarize(suppliers,
+                    SimpleAllocator.allocateForDemand(suppliers, transporters)).totalUnmetDemand();
+
+            int workers = 1 + random.nextInt(5);
+            Map<Supplier, Integer> regionOf = new IdentityHashMap<>();
+            for (Supplier supplier : suppliers) regionOf.put(supplier, random.nextInt(workers));
+            List<InetSocketAddress> addresses = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+                Thread thread = new Thread(() -> {
+                    try (ServerSocket listening = server; Socket socket = listening.accept()) {
+                        new RegionWorker().serve(socket);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            Collection<Transporter> result = allocateForDemand(suppliers, transporters, regionOf, addresses);
+            for (Thread thread : threads) thread.join();
+
+            long partitioned = SimpleAllocator.summarize(suppliers, result).totalUnmetDemand();
+            if (partitioned != single || !AllocationVerifier.verify(suppliers, result).maximum()) {
+                System.out.println("Network " + network + ": unmet demand single node " + single
+                        + ", partitioned " + partitioned);
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static int supplierId(SupplierRegistry registry, Supplier supplier) {
+        int id = registry.id(supplier);
+        if (id < 0) throw new IllegalArgumentException("Transporter endpoint " + supplier.name() + " is not a supplier");
+        return id;
+    }
+
+    private static void portal(List<Map<Integer, Integer>> portalIndex, List<List<Integer>> portalNodes,
+                               int region, int node) {
+        if (portalIndex.get(region).putIfAbsent(node, portalNodes.get(region).size()) == null) {
+            portalNodes.get(region).add(node);
+        }
+    }
+
+    // Segment endpoint code understood by the worker for a condensed node in region r.
+    private static int code(int condensedNode, int region, int[] portalBase) {
+        if (condensedNode == 0) return RegionWorker.SOURCE;
+        if (condensedNode == 1) return RegionWorker.SINK;
+        return condensedNode - portalBase[region];
+    }
+
+    // Breadth-first search from the source to the sink over region reachability and residual boundary lanes.
+    private static boolean condensedPath(boolean[][][] reach, int[] portalBase, List<List<Integer>> incident,
+                                         int[] boundaryFrom, int[] boundaryTo, List<Transporter> boundary,
+                                         int[] boundaryFlow, int[] prevNode, int[] prevVia) {
+        Arrays.fill(prevNode, -1);
+        prevNode[0] = 0;
+        Queue<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int u = queue.remove();
+            for (int r = 0; r < reach.length; r++) {
+                // Row 0 is the source; portal rows follow
+                int row;
+                if (u == 0) row = 0;
+                else if (u >= portalBase[r] && u < portalBase[r + 1]) row = u - portalBase[r] + 1;
+                else continue;
+                boolean[] targets = reach[r][row];
+                int portals = targets.length - 1;
+                for (int t = 0; t <= portals; t++) {
+                    int v = t == portals ? 1 : portalBase[r] + t;
+                    if (!targets[t] || v == u || prevNode[v] >= 0) continue;
+                    prevNode[v] = u;
+                    prevVia[v] = -(r + 1);
+                    if (v == 1) return true;
+                    queue.add(v);
+                }
+            }
+            if (u < 2) continue;
+            for (int b : incident.get(u)) {
+                boolean forward = boundaryFrom[b] == u;
+                int v = forward ? boundaryTo[b] : boundaryFrom[b];
+                int residual = forward ? boundary.get(b).maxCapacity() - boundaryFlow[b] : boundaryFlow[b];
+                if (residual <= 0 || prevNode[v] >= 0) continue;
+                prevNode[v] = u;
+                prevVia[v] = b;
+                queue.add(v);
+            }
+        }
+        return false;
+    }
+
+    /** Boundary lane ends per region, and what the exchange rounds pass between them. */
+    private static final class Exchange {
+        // Per region: {lane, local node, 1 if the lane leaves the node, capacity, far region, far entry, portal}
+        private final List<List<int[]>> entries = new ArrayList<>();
+        // Per region: {entry, flow change} from the far ends, delivered with the next round
+        private final List<List<int[]>> pending = new ArrayList<>();
+        private final List<int[]> ghost = new ArrayList<>();
+        private final int[] laneFlow;
+        private final int labelLimit;
+        private final int[] portalBase;
+        private boolean exact;
+        private boolean moved;
+
+        private Exchange(int lanes, int labelLimit, int[] portalBase) {
+            for (int r = 0; r + 1 < portalBase.length; r++) {
+                entries.add(new ArrayList<>());
+                pending.add(new ArrayList<>());
+            }
+            laneFlow = new int[lanes];
+            this.labelLimit = labelLimit;
+            this.portalBase = portalBase;
+        }
+
+        private void link(int lane, int fromRegion, int fromNode, int fromPortal,
+                          int toRegion, int toNode, int toPortal, int maxCapacity) {
+            int fromEntry = entries.get(fromRegion).size();
+            int toEntry = entries.get(toRegion).size();
+            entries.get(fromRegion).add(new int[]{lane, fromNode, 1, maxCapacity, toRegion, toEntry, fromPortal});
+            entries.get(toRegion).add(new int[]{lane, toNode, 0, maxCapacity, fromRegion, fromEntry, toPortal});
+        }
+
+        // One LABEL round, then the exact label of every portal by Dijkstra over the condensed graph.
+        private void relabel(List<Connection> connections) throws IOException {
+            send(RegionWorker.LABEL, connections);
+            // Arcs into each condensed node: {tail, length}
+            List<List<int[]>> into = new ArrayList<>();
+            for (int c = 0; c < portalBase[portalBase.length - 1]; c++) into.add(new ArrayList<>());
+            for (int r = 0; r < connections.size(); r++) {
+                DataInputStream in = connections.get(r).in;
+                int portals = portalBase[r + 1] - portalBase[r];
+                for (int row = 0; row < portals; row++) {
+                    for (int column = 0; column < portals + 2; column++) {
+                        int length = in.readInt();
+                        if (length <= 0) continue;
+                        int head = column < portals ? portalBase[r] + column : column == portals ? 1 : 0;
+                        into.get(head).add(new int[]{portalBase[r] + row, length});
+                    }
+                }
+            }
+            for (List<int[]> region : entries) {
+                for (int[] entry : region) {
+                    if (entry[2] == 0) continue;
+                    int farPortal = entries.get(entry[4]).get(entry[5])[6];
+                    if (laneFlow[entry[0]] < entry[3]) into.get(farPortal).add(new int[]{entry[6], 1});
+                    if (laneFlow[entry[0]] > 0) into.get(entry[6]).add(new int[]{farPortal, 1});
+                }
+            }
+
+            // Distance to the sink, or the source's label plus distance to the source
+            int[] label = new int[into.size()];
+            Arrays.fill(label, 2 * labelLimit);
+            label[0] = labelLimit;
+            label[1] = 0;
+            // Queue items are label << 32 | condensed node
+            PriorityQueue<Long> queue = new PriorityQueue<>();
+            queue.add(1L);
+            queue.add((long) labelLimit << 32);
+            while (!queue.isEmpty()) {
+                long item = queue.remove();
+                int v = (int) item;
+                if (item >>> 32 != label[v]) continue;
+                for (int[] arc : into.get(v)) {
+                    int u = arc[0];
+                    if (u < 2 || label[v] + arc[1] >= label[u]) continue;
+                    label[u] = label[v] + arc[1];
+                    queue.add((long) label[u] << 32 | u);
+                }
+            }
+            for (int r = 0; r < entries.size(); r++) {
+                List<int[]> region = entries.get(r);
+                for (int k = 0; k < region.size(); k++) {
+                    int[] entry = region.get(k);
+                    ghost.get(r)[k] = label[entries.get(entry[4]).get(entry[5])[6]];
+                }
+            }
+            exact = true;
+        }
+
+        // One PUSH or RETURN request to every worker, then route their flow changes and labels to the far ends.
+        private void round(byte request, List<Connection> connections) throws IOException {
+            send(request, connections);
+            moved = false;
+            for (int r = 0; r < connections.size(); r++) {
+                DataInputStream in = connections.get(r).in;
+                List<int[]> region = entries.get(r);
+                for (int i = in.readInt(); i > 0; i--) {
+                    int[] entry = region.get(in.readInt());
+                    int delta = in.readInt();
+                    laneFlow[entry[0]] += delta;
+                    pending.get(entry[4]).add(new int[]{entry[5], delta});
+                    moved = true;
+                }
+                for (int[] entry : region) ghost.get(entry[4])[entry[5]] = in.readInt();
+            }
+        }
+
+        private void send(byte request, List<Connection> connections) throws IOException {
+            if (ghost.isEmpty()) for (List<int[]> region : entries) ghost.add(new int[region.size()]);
+            for (int r = 0; r < connections.size(); r++) {
+                connections.get(r).exchange(request, pending.get(r), ghost.get(r), exact);
+                pending.get(r).clear();
+            }
+            exact = false;
+        }
+    }
+
+    /** Client side of the worker protocol. */
+    private static final class Connection implements Closeable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private void init(SupplierRegistry registry, List<Integer> nodes, List<Transporter> lanes, int[] localId,
+                          List<Integer> portals, int labelLimit, List<int[]> entries) throws IOException {
+            out.writeByte(RegionWorker.INIT);
+            out.writeInt(nodes.size());
+            for (int id : nodes) {
+                out.writeInt(registry.demand(id));
+                out.writeInt(registry.inventory(id));
+            }
+            out.writeInt(lanes.size());
+            for (Transporter lane : lanes) {
+                out.writeInt(localId[registry.id(lane.from())]);
+                out.writeInt(localId[registry.id(lane.to())]);
+                out.writeInt(lane.maxCapacity());
+            }
+            out.writeInt(portals.size());
+            for (int portal : portals) out.writeInt(portal);
+            out.writeInt(labelLimit);
+            out.writeInt(entries.size());
+            for (int[] entry : entries) {
+                out.writeInt(entry[1]);
+                out.writeBoolean(entry[2] != 0);
+                out.writeInt(entry[3]);
+            }
+            out.flush();
+        }
+
+        private void exchange(byte request, List<int[]> deltas, int[] ghostLabels, boolean exact) throws IOException {
+            out.writeByte(request);
+            out.writeInt(deltas.size());
+            for (int[] delta : deltas) {
+                out.writeInt(delta[0]);
+                out.writeInt(delta[1]);
+            }
+            for (int label : ghostLabels) out.writeInt(label);
+            out.writeBoolean(exact);
+            out.flush();
+        }
+
+        private void send(byte request) throws IOException {
+            out.writeByte(request);
+            out.flush();
+        }
+
+        private void awaitAck(byte request) throws IOException {
+            if (in.readByte() != request) throw new IOException("Unexpected worker reply");
+        }
+
+        private boolean[][] readReach(int portals) throws IOException {
+            boolean[][] reach = new boolean[portals + 1][portals + 1];
+            for (boolean[] row : reach) for (int t = 0; t <= portals; t++) row[t] = in.readBoolean();
+            return reach;
+        }
+
+        private void plan(List<int[]> segments) throws IOException {
+            out.writeByte(RegionWorker.PLAN);
+            out.writeInt(segments.size());
+            for (int[] segment : segments) {
+                out.writeInt(segment[0]);
+                out.writeInt(segment[1]);
+            }
+            out.flush();
+        }
+
+        private int readBottleneck(int segments) throws IOException {
+            int bottleneck = Integer.MAX_VALUE;
+            for (int i = 0; i < segments; i++) bottleneck = Math.min(bottleneck, in.readInt());
+            return bottleneck;
+        }
+
+        private void commit(int amount) throws IOException {
+            out.writeByte(RegionWorker.COMMIT);
+            out.writeInt(amount);
+            out.flush();
+        }
+
+        private int[] readFlows() throws IOException {
+            int[] flows = new int[in.readInt()];
+            for (int l = 0; l < flows.length; l++) flows[l] = in.readInt();
+            return flows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.writeByte(RegionWorker.SHUTDOWN);
+                out.flush();
+            } finally {
+                socket.close();
+            }
+        }
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
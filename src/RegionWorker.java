@@ -0,0 +1,450 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+/**
+ * Worker process that holds one region of a partitioned network
+ * for {@link PartitionedAllocator}.
+ * -
+ * The worker keeps the residual graph of its region: the lanes whose both
+ * endpoints are in the region, plus the region's share of the super source
+ * and super sink arcs (wired as in {@link SimpleAllocator#allocateForDemand}).
+ * Lanes that cross regions belong to the coordinator; their endpoints are
+ * the region's portals. The worker also keeps its own view of the flow on
+ * each of those boundary lanes and the last label it heard for the node at
+ * the far end (its ghost label). The coordinator drives the worker with short
+ * binary requests over a loopback socket:
+ * - INIT: region nodes, internal lanes, portals and boundary lanes
+ * - LABEL: residual distances from each portal to the other portals, the sink and the source
+ * - PUSH: push-relabel on the region until all excess has left its nodes
+ * - RETURN: send remaining excess back along the flow that brought it
+ * - REACH: which portals (and the sink) each portal (and the source) reaches
+ * - PLAN: pick residual paths for a list of segments and report bottlenecks
+ * - COMMIT: push a number of units along the planned paths
+ * - FLOWS: report the flow on every internal lane
+ * - SHUTDOWN: close the connection and exit
+ * LABEL, PUSH and RETURN are exchange rounds: the request carries the flow
+ * changes other regions made on this region's boundary lanes and fresh ghost
+ * labels. When the coordinator marks the ghost labels exact, the worker first
+ * sets every label to its distance through them. A LABEL reply is the
+ * distance table; the others carry this region's flow changes and labels.
+ * A boundary lane's tail only raises its flow and its head only lowers it
+ * between exchanges, so each side's view errs on the safe side and no lane
+ * ever exceeds its capacity or goes negative.
+ * -
+ * Run as <code>java RegionWorker [port]</code>; the worker prints
+ * <code>PORT n</code> on standard output once it is listening.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public class RegionWorker {
+    static final byte INIT = 1;
+    static final byte REACH = 2;
+    static final byte PLAN = 3;
+    static final byte COMMIT = 4;
+    static final byte FLOWS = 5;
+    static final byte SHUTDOWN = 6;
+    static final byte LABEL = 7;
+    static final byte PUSH = 8;
+    static final byte RETURN = 9;
+
+    /** Segment endpoint codes for the super source and super sink. */
+    static final int SOURCE = -1;
+    static final int SINK = -2;
+
+    // Residual graph with linked adjacency lists; arcs 2k and 2k + 1 are twins
+    private int nodeCount;
+    private int superSource, superSink;
+    private int[] first;
+    private int[] head = new int[16], capacity = new int[16], flow = new int[16], next = new int[16];
+    private int arcCount;
+    private int laneCount;
+    private int[] portals = new int[0];
+
+    // Push-relabel state; the super source is labeled with the global node count
+    private int[] label = new int[0];
+    private long[] excess = new long[0];
+
+    // Boundary lanes at this region's nodes, linked per node like the arcs
+    private int[] entryNode = new int[0], entryCapacity = new int[0], entryFlow = new int[0];
+    private int[] ghostLabel = new int[0], entryFirst = new int[0], entryNext = new int[0];
+    private boolean[] entryOut = new boolean[0];
+
+    // Paths chosen by the last PLAN request
+    private final List<int[]> planned = new ArrayList<>();
+
+    /**
+     * Start a worker listening on the loopback interface.
+     * @param args optional port (0 or absent for any free port)
+     * @throws IOException if the socket fails
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println("PORT " + server.getLocalPort());
+            System.out.flush();
+            try (Socket socket = server.accept()) {
+                new RegionWorker().serve(socket);
+            }
+        }
+    }
+
+    /**
+     * Answer coordinator requests on a connected socket until SHUTDOWN.
+     * @param socket the connection to the coordinator
+     * @throws IOException if the connection fails
+     */
+    public void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        while (true) {
+            byte request = in.readByte();
+            switch (request) {
+                case INIT: init(in); out.writeByte(INIT); break;
+                case LABEL: case PUSH: case RETURN: exchange(request, in, out); break;
+                case REACH: reach(out); break;
+                case PLAN: plan(in, out); break;
+                case COMMIT: commit(in.readInt()); out.writeByte(COMMIT); break;
+                case FLOWS:
+                    out.writeInt(laneCount);
+                    for (int l = 0; l < laneCount; l++) out.writeInt(flow[2 * l]);
+                    break;
+                case SHUTDOWN: return;
+                default: throw new IOException("Unknown request " + request);
+            }
+            out.flush();
+        }
+    }
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private void init(DataInputStream in) throws IOException {
+        int nodes = in.readInt();
+        int[] demand = new int[nodes];
+        int[] inventory = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            demand[v] = in.readInt();
+            inventory[v] = in.readInt();
+        }
+        nodeCount = nodes + 2;
+        superSource = nodes;
+        superSink = nodes + 1;
+        first = new int[nodeCount];
+        Arrays.fill(first, -1);
+        arcCount = 0;
+
+        // Internal lanes come first so lane l is arc 2l
+        laneCount = in.readInt();
+        for (int l = 0; l < laneCount; l++) addArc(in.readInt(), in.readInt(), in.readInt());
+        for (int v = 0; v < nodes; v++) {
+            if (demand[v] <= 0) addArc(superSource, v, inventory[v] - demand[v]);
+            else addArc(v, superSink, demand[v]);
+        }
+        portals = new int[in.readInt()];
+        for (int p = 0; p < portals.length; p++) portals[p] = in.readInt();
+
+        label = new int[nodeCount];
+        label[superSource] = in.readInt();
+        excess = new long[nodeCount];
+        int entries = in.readInt();
+        entryNode = new int[entries];
+        entryOut = new boolean[entries];
+        entryCapacity = new int[entries];
+        entryFlow = new int[entries];
+        ghostLabel = new int[entries];
+        entryNext = new int[entries];
+        entryFirst = new int[nodeCount];
+        Arrays.fill(entryFirst, -1);
+        for (int k = 0; k < entries; k++) {
+            entryNode[k] = in.readInt();
+            entryOut[k] = in.readBoolean();
+            entryCapacity[k] = in.readInt();
+            entryNext[k] = entryFirst[entryNode[k]];
+            entryFirst[entryNode[k]] = k;
+        }
+
+        // Push-relabel starts with every super source arc full
+        for (int a = first[superSource]; a >= 0; a = next[a]) {
+            flow[a] = capacity[a];
+            flow[a ^ 1] = -capacity[a];
+            excess[head[a]] += capacity[a];
+        }
+    }
+
+    // Apply the other regions' flow changes and ghost labels, do one round of work, report ours.
+    private void exchange(byte request, DataInputStream in, DataOutputStream out) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            int k = in.readInt();
+            int delta = in.readInt();
+            entryFlow[k] += delta;
+            excess[entryNode[k]] += Math.abs(delta);
+        }
+        for (int k = 0; k < ghostLabel.length; k++) ghostLabel[k] = in.readInt();
+        if (in.readBoolean()) relabelAll();
+        if (request == LABEL) {
+            distances(out);
+            return;
+        }
+
+        int[] sent = new int[entryNode.length];
+        if (request == PUSH) discharge(sent);
+        else returnExcess(sent);
+
+        int changed = 0;
+        for (int delta : sent) if (delta != 0) changed++;
+        out.writeInt(changed);
+        for (int k = 0; k < sent.length; k++) {
+            if (sent[k] == 0) continue;
+            out.writeInt(k);
+            out.writeInt(sent[k]);
+        }
+        for (int node : entryNode) out.writeInt(label[node]);
+    }
+
+    // Residual capacity of a boundary lane leaving its local endpoint toward the far end.
+    private int entryResidual(int k) {
+        return entryOut[k] ? entryCapacity[k] - entryFlow[k] : entryFlow[k];
+    }
+
+    // Rows: each portal. Columns: each portal, then sink, then source; -1 if unreachable in the region.
+    private void distances(DataOutputStream out) throws IOException {
+        int[] dist = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        for (int portal : portals) {
+            Arrays.fill(dist, -1);
+            int read = 0, write = 0;
+            queue[write++] = portal;
+            dist[portal] = 0;
+            while (read < write) {
+                int current = queue[read++];
+                if (current >= superSource) continue;
+                for (int a = first[current]; a >= 0; a = next[a]) {
+                    int dest = head[a];
+                    if (dist[dest] >= 0 || capacity[a] - flow[a] <= 0) continue;
+                    dist[dest] = dist[current] + 1;
+                    queue[write++] = dest;
+                }
+            }
+            for (int target : portals) out.writeInt(dist[target]);
+            out.writeInt(dist[superSink]);
+            out.writeInt(dist[superSource]);
+        }
+    }
+
+    // Distances to the sink (or the label of the source plus distance to it), through ghost label + 1.
+    private void relabelAll() {
+        int limit = label[superSource];
+        Arrays.fill(label, 2 * limit);
+        label[superSource] = limit;
+        label[superSink] = 0;
+        // Queue items are label << 32 | node
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        queue.add((long) superSink);
+        queue.add((long) limit << 32 | superSource);
+        for (int k = 0; k < entryNode.length; k++) {
+            int v = entryNode[k];
+            if (entryResidual(k) > 0 && ghostLabel[k] + 1 < label[v]) {
+                label[v] = ghostLabel[k] + 1;
+                queue.add((long) label[v] << 32 | v);
+            }
+        }
+        while (!queue.isEmpty()) {
+            long item = queue.remove();
+            int w = (int) item;
+            if (item >>> 32 != label[w]) continue;
+            for (int a = first[w]; a >= 0; a = next[a]) {
+                // Arc a ^ 1 runs from head[a] into w
+                int u = head[a];
+                if (u >= superSource || capacity[a ^ 1] - flow[a ^ 1] <= 0 || label[w] + 1 >= label[u]) continue;
+                label[u] = label[w] + 1;
+                queue.add((long) label[u] << 32 | u);
+            }
+        }
+    }
+
+    // FIFO push-relabel; excess pushed to a ghost leaves the region at the next exchange.
+    private void discharge(int[] sent) {
+        int nodes = superSource;
+        int[] queue = new int[nodes];
+        boolean[] active = new boolean[nodes];
+        int read = 0, size = 0;
+        for (int v = 0; v < nodes; v++) {
+            if (excess[v] > 0) {
+                active[v] = true;
+                queue[size++] = v;
+            }
+        }
+        while (size > 0) {
+            int u = queue[read];
+            read = (read + 1) % nodes;
+            size--;
+            active[u] = false;
+            while (excess[u] > 0) {
+                int lowest = Integer.MAX_VALUE;
+                for (int a = first[u]; a >= 0 && excess[u] > 0; a = next[a]) {
+                    int residual = capacity[a] - flow[a];
+                    if (residual <= 0) continue;
+                    int w = head[a];
+                    if (label[u] != label[w] + 1) {
+                        lowest = Math.min(lowest, label[w]);
+                        continue;
+                    }
+                    int units = (int) Math.min(excess[u], residual);
+                    flow[a] += units;
+                    flow[a ^ 1] -= units;
+                    excess[u] -= units;
+                    if (w < nodes) {
+                        excess[w] += units;
+                        if (!active[w]) {
+                            active[w] = true;
+                            queue[(read + size++) % nodes] = w;
+                        }
+                    }
+                }
+                for (int k = entryFirst[u]; k >= 0 && excess[u] > 0; k = entryNext[k]) {
+                    int residual = entryResidual(k);
+                    if (residual <= 0) continue;
+                    if (label[u] != ghostLabel[k] + 1) {
+                        lowest = Math.min(lowest, ghostLabel[k]);
+                        continue;
+                    }
+                    int units = (int) Math.min(excess[u], residual);
+                    int delta = entryOut[k] ? units : -units;
+                    entryFlow[k] += delta;
+                    sent[k] += delta;
+                    excess[u] -= units;
+                }
+                if (excess[u] == 0) break;
+                // Every unit of excess came in over an arc whose twin is still residual
+                if (lowest == Integer.MAX_VALUE) throw new IllegalStateException("Excess with no residual arc");
+                label[u] = lowest + 1;
+            }
+        }
+    }
+
+    // Cancel inflow at nodes with excess until it reaches the super source or leaves the region.
+    private void returnExcess(int[] sent) {
+        int nodes = superSource;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int v = 0; v < nodes; v++) if (excess[v] > 0) queue.add(v);
+        while (!queue.isEmpty()) {
+            int v = queue.remove();
+            // Odd arcs out of v are the twins of the arcs into v
+            for (int a = first[v]; a >= 0 && excess[v] > 0; a = next[a]) {
+                if ((a & 1) == 0 || flow[a ^ 1] <= 0) continue;
+                int units = (int) Math.min(excess[v], flow[a ^ 1]);
+                flow[a ^ 1] -= units;
+                flow[a] += units;
+                excess[v] -= units;
+                int w = head[a];
+                if (w < nodes) {
+                    if (excess[w] == 0) queue.add(w);
+                    excess[w] += units;
+                }
+            }
+            for (int k = entryFirst[v]; k >= 0 && excess[v] > 0; k = entryNext[k]) {
+                if (entryOut[k] || entryFlow[k] <= 0) continue;
+                int units = (int) Math.min(excess[v], entryFlow[k]);
+                entryFlow[k] -= units;
+                sent[k] -= units;
+                excess[v] -= units;
+            }
+            if (excess[v] > 0) throw new IllegalStateException("Excess exceeds inflow");
+        }
+    }
+
+    private void addArc(int from, int to, int maxCapacity) {
+        if (arcCount + 2 > head.length) {
+            int size = head.length * 2;
+            head = Arrays.copyOf(head, size);
+            capacity = Arrays.copyOf(capacity, size);
+            flow = Arrays.copyOf(flow, size);
+            next = Arrays.copyOf(next, size);
+        }
+        link(from, to, maxCapacity);
+        link(to, from, 0);
+    }
+
+    private void link(int from, int to, int maxCapacity) {
+        head[arcCount] = to;
+        capacity[arcCount] = maxCapacity;
+        flow[arcCount] = 0;
+        next[arcCount] = first[from];
+        first[from] = arcCount++;
+    }
+
+    private int node(int code) {
+        if (code == SOURCE) return superSource;
+        if (code == SINK) return superSink;
+        return portals[code];
+    }
+
+    // Rows: source, then each portal. Columns: each portal, then sink.
+    private void reach(DataOutputStream out) throws IOException {
+        int[] parent = new int[nodeCount];
+        for (int row = -1; row < portals.length; row++) {
+            boolean[] seen = search(row < 0 ? superSource : portals[row], -1, parent);
+            for (int portal : portals) out.writeBoolean(seen[portal]);
+            out.writeBoolean(seen[superSink]);
+        }
+    }
+
+    private void plan(DataInputStream in, DataOutputStream out) throws IOException {
+        planned.clear();
+        int segments = in.readInt();
+        int[] parent = new int[nodeCount];
+        for (int i = 0; i < segments; i++) {
+            int from = node(in.readInt());
+            int to = node(in.readInt());
+            boolean[] seen = search(from, to, parent);
+            if (!seen[to]) {
+                planned.add(new int[0]);
+                out.writeInt(0);
+                continue;
+            }
+            List<Integer> arcs = new ArrayList<>();
+            int bottleneck = Integer.MAX_VALUE;
+            for (int v = to; v != from; v = head[parent[v] ^ 1]) {
+                arcs.add(parent[v]);
+                bottleneck = Math.min(bottleneck, capacity[parent[v]] - flow[parent[v]]);
+            }
+            planned.add(arcs.stream().mapToInt(Integer::intValue).toArray());
+            out.writeInt(bottleneck);
+        }
+    }
+
+    private void commit(int amount) {
+        for (int[] path : planned) {
+            for (int arc : path) {
+                flow[arc] += amount;
+                flow[arc ^ 1] -= amount;
+            }
+        }
+        planned.clear();
+    }
+
+    // Breadth-first search over residual arcs from start; stops early once target is seen.
+    private boolean[] search(int start, int target, int[] parent) {
+        boolean[] seen = new boolean[nodeCount];
+        int[] queue = new int[nodeCount];
+        int read = 0, write = 0;
+        queue[write++] = start;
+        seen[start] = true;
+        while (read < write) {
+            int current = queue[read++];
+            for (int a = first[current]; a >= 0; a = next[a]) {
+                int dest = head[a];
+                if (seen[dest] || capacity[a] - flow[a] <= 0) continue;
+                seen[dest] = true;
+                parent[dest] = a;
+                if (dest == target) return seen;
+                queue[write++] = dest;
+            }
+        }
+        return seen;
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
@@ -0,0 +1,420 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * What-if evaluation of many demand and capacity scenarios over one network.
+ * -
+ * The residual network that {@link SimpleAllocator#allocateForDemand} builds
+ * (super source and sink arcs, lane arcs and their reverse arcs) is laid out
+ * once in CSR form and shared, read-only, by every scenario, together with
+ * the arc capacities of the base network. A scenario holds only its changes:
+ * a list of (index, value) overrides each for lane capacities, demands and
+ * inventories, so creating or deriving one costs time in the number of
+ * changes, not in the size of the network.
+ * Each supplier has both a super source arc and a super sink arc, and the
+ * one its demand does not use has zero capacity, so a demand that changes
+ * sign does not change the topology.
+ * -
+ * Scenarios run in parallel; each one being solved takes capacity, flow and
+ * search buffers from a pool local to the run (so there are no more buffer
+ * sets than concurrent solves, and all are released when the run returns),
+ * copies the base arc capacities into them and applies the overrides. Arcs
+ * are in the same order as in allocateForDemand, so each scenario finds the
+ * same maximum flow as allocateForDemand over the correspondingly changed
+ * copy, and like it reads each lane's allocation from the lane's own arc.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class ScenarioEngine {
+    private final SupplierRegistry registry;
+    private final Map<Transporter, Integer> laneIndex = new IdentityHashMap<>();
+    private final Transporter[] lanes;
+    private final int nodes, superSource, superSink;
+
+    // Shared topology (CSR by tail node, arcs in allocateForDemand insertion order)
+    private final int[] arcStart, head, twin;
+    /** Forward arc of each lane, and each supplier's super source and super sink arcs. */
+    private final int[] laneArc, sourceArc, sinkArc;
+
+    // Base values; scenarios override some of them
+    private final int[] baseArcCapacity, baseDemand, baseInventory;
+    private final int[] laneCost;
+
+    /**
+     * Lay out the shared topology of a network.
+     * @param suppliers the suppliers
+     * @param transporters the transporters (lanes)
+     */
+    public ScenarioEngine(Collection<Supplier> suppliers, Collection<Transporter> transporters) {
+        registry = SupplierRegistry.of(suppliers);
+        lanes = transporters.toArray(new Transporter[0]);
+        int m = lanes.length;
+        for (int l = 0; l < m; l++) {
+            laneIndex.putIfAbsent(lanes[l], l);
+            registry.intern(lanes[l].from());
+            registry.intern(lanes[l].to());
+        }
+        int n = registry.size();
+        nodes = n + 2;
+        superSource = n;
+        superSink = n + 1;
+
+        // Arcs in insertion order: per supplier a source arc and a sink arc (each with its reverse), then lanes
+        int arcs = 4 * n + 2 * m;
+        int[] tail = new int[arcs];
+        head = new int[arcs];
+        twin = new int[arcs];
+        int a = 0;
+        for (int s = 0; s < n; s++) {
+            a = addArc(tail, a, superSource, s);
+            a = addArc(tail, a, s, superSink);
+        }
+        for (int l = 0; l < m; l++) {
+            a = addArc(tail, a, registry.id(lanes[l].from()), registry.id(lanes[l].to()));
+        }
+
+        // Stable counting sort by tail keeps each node's insertion order
+        arcStart = new int[nodes + 1];
+        for (int t : tail) arcStart[t + 1]++;
+        for (int v = 0; v < nodes; v++) arcStart[v + 1] += arcStart[v];
+        int[] position = new int[arcs];
+        int[] fill = Arrays.copyOf(arcStart, nodes);
+        for (int i = 0; i < arcs; i++) position[i] = fill[tail[i]]++;
+        permute(head, position);
+        int[] oldTwin = twin.clone();
+        for (int i = 0; i < arcs; i++) twin[position[i]] = position[oldTwin[i]];
+
+        sourceArc = new int[n];
+        sinkArc = new int[n];
+        for (int s = 0; s < n; s++) {
+            sourceArc[s] = position[4 * s];
+            sinkArc[s] = position[4 * s + 2];
+        }
+        laneArc = new int[m];
+        for (int l = 0; l < m; l++) laneArc[l] = position[4 * n + 2 * l];
+
+        // Reverse arcs keep capacity 0
+        baseArcCapacity = new int[arcs];
+        laneCost = new int[m];
+        for (int l = 0; l < m; l++) {
+            baseArcCapacity[laneArc[l]] = lanes[l].maxCapacity();
+            laneCost[l] = lanes[l].costPerUnit();
+        }
+        baseDemand = new int[n];
+        baseInventory = new int[n];
+        for (int s = 0; s < n; s++) {
+            baseDemand[s] = registry.demand(s);
+            baseInventory[s] = registry.inventory(s);
+            setSupplierArcs(baseArcCapacity, s, baseDemand[s], baseInventory[s]);
+        }
+    }
+
+    // ========= PUBLIC INTERFACE (BELOW) =========
+
+    /**
+     * A set of changes to the base network, kept as overrides; values it
+     * does not change are read from the engine.
+     */
+    public final class Scenario {
+        private final String name;
+        private final Overrides capacity, demand, inventory;
+
+        private Scenario(String name, Overrides capacity, Overrides demand, Overrides inventory) {
+            this.name = name;
+            this.capacity = capacity;
+            this.demand = demand;
+            this.inventory = inventory;
+        }
+
+        /**
+         * @return the name of this scenario
+         */
+        public String name() { return name; }
+
+        /**
+         * Change the maximum capacity of a lane.
+         * @param transporter the lane
+         * @param maxCapacity its capacity in this scenario
+         * @return this scenario
+         */
+        public Scenario setCapacity(Transporter transporter, int maxCapacity) {
+            capacity.put(lane(transporter), maxCapacity);
+            return this;
+        }
+
+        /**
+         * Change the demand of a supplier.
+         * @param supplier the supplier
+         * @param units its demand in this scenario (negative for a manufacturer)
+         * @return this scenario
+         */
+        public Scenario setDemand(Supplier supplier, int units) {
+            demand.put(supplier(supplier), units);
+            return this;
+        }
+
+        /**
+         * Change the inventory on hand of a supplier.
+         * @param supplier the supplier
+         * @param units its inventory in this scenario
+         * @return this scenario
+         */
+        public Scenario setInventory(Supplier supplier, int units) {
+            inventory.put(supplier(supplier), units);
+            return this;
+        }
+
+        /**
+         * Start a new scenario with all of this scenario's changes;
+         * later changes to either one do not affect the other.
+         * @param name the name of the new scenario
+         * @return the new scenario
+         */
+        public Scenario derive(String name) {
+            return new Scenario(name, capacity.copy(), demand.copy(), inventory.copy());
+        }
+
+        private ScenarioEngine engine() {
+            return ScenarioEngine.this;
+        }
+    }
+
+    /**
+     * One row per scenario: total cost, units shipped and unmet demand.
+     */
+    public static final class Comparison {
+        private final String[] names;
+        private final long[] cost, shipped, unmet;
+
+        private Comparison(int size) {
+            names = new String[size];
+            cost = new long[size];
+            shipped = new long[size];
+            unmet = new long[size];
+        }
+
+        /**
+         * @return number of scenarios
+         */
+        public int size() { return names.length; }
+
+        /**
+         * @param row a scenario's position in the list that was run
+         * @return its name
+         */
+        public String name(int row) { return names[row]; }
+
+        /**
+         * @param row a scenario's position in the list that was run
+         * @return sum of allocation * costPerUnit over the lanes
+         */
+        public long totalCost(int row) { return cost[row]; }
+
+        /**
+         * @param row a scenario's position in the list that was run
+         * @return sum of the lane allocations
+         */
+        public long totalShipped(int row) { return shipped[row]; }
+
+        /**
+         * @param row a scenario's position in the list that was run
+         * @return sum over suppliers with positive demand of the demand not delivered
+         */
+        public long unmetDemand(int row) { return unmet[row]; }
+
+        @Override
+        public String toString() {
+            int width = "scenario".length();
+            for (String name : names) width = Math.max(width, name.length());
+            StringBuilder table = new StringBuilder(String.format("%-" + width + "s %15s %12s %12s",
+                    "scenario", "cost", "shipped", "unmet"));
+            for (int i = 0; i < names.length; i++) {
+                table.append('\n').append(String.format("%-" + width + "s %15d %12d %12d",
+                        names[i], cost[i], shipped[i], unmet[i]));
+            }
+            return table.toString();
+        }
+    }
+
+    /**
+     * @param name the name of the scenario
+     * @return a new scenario equal to the base network
+     */
+    public Scenario scenario(String name) {
+        return new Scenario(name, new Overrides(), new Overrides(), new Overrides());
+    }
+
+    /**
+     * Run scenarios in parallel on the common fork-join pool.
+     * @param scenarios scenarios created by this engine
+     * @return the comparison table, one row per scenario in the given order
+     */
+    public Comparison run(List<Scenario> scenarios) {
+        Comparison table = new Comparison(scenarios.size());
+        Queue<Buffers> pool = new ConcurrentLinkedQueue<>();
+        IntStream.range(0, scenarios.size()).parallel().forEach(i -> {
+            Scenario scenario = scenarios.get(i);
+            table.names[i] = scenario.name;
+            Buffers buffers = pool.poll();
+            if (buffers == null) buffers = new Buffers(nodes, baseArcCapacity.length);
+            buffers.solve(scenario, table, i);
+            pool.add(buffers);
+        });
+        return table;
+    }
+    // ========= PUBLIC INTERFACE (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    private int lane(Transporter transporter) {
+        Integer l = laneIndex.get(transporter);
+        if (l == null) throw new IllegalArgumentException("Unknown transporter: " + transporter.name());
+        return l;
+    }
+
+    private int supplier(Supplier supplier) {
+        int id = registry.id(supplier);
+        if (id < 0) throw new IllegalArgumentException("Unknown supplier: " + supplier.name());
+        return id;
+    }
+
+    // Append an arc and its reverse; returns the next free arc index.
+    private int addArc(int[] tail, int a, int from, int to) {
+        tail[a] = from;
+        head[a] = to;
+        twin[a] = a + 1;
+        tail[a + 1] = to;
+        head[a + 1] = from;
+        twin[a + 1] = a;
+        return a + 2;
+    }
+
+    // Super arc capacities of a supplier, as allocateForDemand sets them; the unused one gets 0.
+    private void setSupplierArcs(int[] arcCapacity, int s, int demand, int inventory) {
+        arcCapacity[sourceArc[s]] = demand <= 0 ? inventory - demand : 0;
+        arcCapacity[sinkArc[s]] = demand > 0 ? demand : 0;
+    }
+
+    private static void permute(int[] values, int[] position) {
+        int[] old = values.clone();
+        for (int i = 0; i < old.length; i++) values[position[i]] = old[i];
+    }
+
+    // Capacity, flow and BFS arrays of one solve at a time, reused across the scenarios of a run.
+    private final class Buffers {
+        private final int[] capacity, flow;
+        private final int[] demand = baseDemand.clone(), inventory = baseInventory.clone();
+        private final int[] parentArc, visit, queue;
+        private int round;
+
+        private Buffers(int nodes, int arcs) {
+            capacity = new int[arcs];
+            flow = new int[arcs];
+            parentArc = new int[nodes];
+            visit = new int[nodes];
+            queue = new int[nodes];
+        }
+
+        private void solve(Scenario scenario, Comparison table, int row) {
+            if (scenario.engine() != ScenarioEngine.this) {
+                throw new IllegalArgumentException("Scenario " + scenario.name + " belongs to another engine");
+            }
+            // Base capacities, then the overrides in the order they were made
+            System.arraycopy(baseArcCapacity, 0, capacity, 0, capacity.length);
+            Overrides lanes = scenario.capacity;
+            for (int i = 0; i < lanes.size; i++) capacity[laneArc[lanes.index[i]]] = lanes.value[i];
+            scenario.demand.applyTo(demand);
+            scenario.inventory.applyTo(inventory);
+            for (Overrides changed : new Overrides[]{scenario.demand, scenario.inventory}) {
+                for (int i = 0; i < changed.size; i++) {
+                    int s = changed.index[i];
+                    setSupplierArcs(capacity, s, demand[s], inventory[s]);
+                }
+            }
+            Arrays.fill(flow, 0);
+
+            // Edmonds-Karp, as in allocateForDemand
+            while (findPath()) augment();
+
+            long cost = 0, shipped = 0, unmet = 0;
+            for (int l = 0; l < laneArc.length; l++) {
+                int units = flow[laneArc[l]];
+                shipped += units;
+                cost += (long) units * laneCost[l];
+            }
+            for (int s = 0; s < sinkArc.length; s++) {
+                if (demand[s] > 0) unmet += demand[s] - flow[sinkArc[s]];
+            }
+            table.cost[row] = cost;
+            table.shipped[row] = shipped;
+            table.unmet[row] = unmet;
+
+            // Leave the supplier buffers at the base values for the next scenario
+            scenario.demand.restore(demand, baseDemand);
+            scenario.inventory.restore(inventory, baseInventory);
+        }
+
+        private boolean findPath() {
+            round++;
+            int headIndex = 0, tailIndex = 0;
+            queue[tailIndex++] = superSource;
+            visit[superSource] = round;
+            while (headIndex < tailIndex) {
+                int u = queue[headIndex++];
+                for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                    int v = head[a];
+                    if (visit[v] == round || capacity[a] - flow[a] <= 0) continue;
+                    visit[v] = round;
+                    parentArc[v] = a;
+                    if (v == superSink) return true;
+                    queue[tailIndex++] = v;
+                }
+            }
+            return false;
+        }
+
+        private void augment() {
+            int minFlow = Integer.MAX_VALUE;
+            for (int v = superSink; v != superSource; v = head[twin[parentArc[v]]]) {
+                minFlow = Math.min(minFlow, capacity[parentArc[v]] - flow[parentArc[v]]);
+            }
+            for (int v = superSink; v != superSource; v = head[twin[parentArc[v]]]) {
+                flow[parentArc[v]] += minFlow;
+                flow[twin[parentArc[v]]] -= minFlow;
+            }
+        }
+    }
+
+    // Changes to one kind of value as (index, value) pairs in the order made; a later pair wins.
+    private static final class Overrides {
+        private int[] index = new int[4], value = new int[4];
+        private int size;
+
+        private void put(int i, int v) {
+            if (size == index.length) {
+                index = Arrays.copyOf(index, size * 2);
+                value = Arrays.copyOf(value, size * 2);
+            }
+            index[size] = i;
+            value[size++] = v;
+        }
+
+        private void applyTo(int[] values) {
+            for (int i = 0; i < size; i++) values[index[i]] = value[i];
+        }
+
+        private void restore(int[] values, int[] base) {
+            for (int i = 0; i < size; i++) values[index[i]] = base[index[i]];
+        }
+
+        private Overrides copy() {
+            Overrides copy = new Overrides();
+            copy.index = Arrays.copyOf(index, Math.max(4, size));
+            copy.value = Arrays.copyOf(value, Math.max(4, size));
+            copy.size = size;
+            return copy;
+        }
+    }
+    // ========= PRIVATE METHODS (ABOVE) =========
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -31,112 +32,329 @@ public class SimpleAllocator {
                                                        Collection<Transporter> transporters,
                                                        Supplier source,
                                                        Supplier destination) {
+        return cheapestPath(suppliers, transporters, source, destination, Integer.MIN_VALUE);
+    }
 
-        // Keep track of the lowest cost to reach each supplier.
-        Map<Supplier, Integer> minCost = new HashMap<>();
-        // Remember which connection was used to reach each supplier at the lowest cost.
-        Map<Supplier, Edge> previousEdge = new HashMap<>();
-        // A set of all suppliers that haven't been visitedSuppliers yet.
-        Set<Supplier> unvisitedSuppliers = new HashSet<>(suppliers);
+    /**
+     * Cheapest path that only uses transporters with at least minCapacity
+     * units of remaining capacity (maxCapacity - allocation).
+     * Use the shipment size to find a route that can carry the whole shipment,
+     * or a bottleneck floor to find the cheapest route at least that wide.
+     * Lanes are pruned inside the search, so no filtered graph is built.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param source the starting supplier
+     * @param destination the final supplier
+     * @param minCapacity the remaining capacity every transporter on the path must have
+     * @return transporters of the cheapest qualifying path; empty if there is none
+     */
+    public static Collection<Transporter> cheapestPath(Collection<Supplier> suppliers,
+                                                       Collection<Transporter> transporters,
+                                                       Supplier source,
+                                                       Supplier destination,
+                                                       int minCapacity) {
+
+        // Intern every supplier of the network to a dense id; all state below is indexed by id.
+        SupplierRegistry registry = network(suppliers, transporters);
+        int sourceId = registry.intern(source);
+        int destinationId = registry.intern(destination);
 
         // Create a graph (network of suppliers and connections).
-        Graph graph = new Graph();
+        Graph graph = new Graph(registry.size());
         for (Transporter transporter : transporters) {
             // Add the transporter to the graph as an edge between the source and destination suppliers.
-            graph.addCheapestPathEdge(transporter);
+            graph.addCheapestPathEdge(transporter, registry.id(transporter.from()), registry.id(transporter.to()));
         }
 
-        // Initially, set the cost to reach each supplier to the highest possible value.
-        for (Supplier supplier : suppliers) {
-            minCost.put(supplier, Integer.MAX_VALUE);
-        }
+        // Keep track of the lowest cost to reach each supplier, initially the highest possible value.
+        long[] minCost = new long[registry.size()];
+        Arrays.fill(minCost, Long.MAX_VALUE);
+        // Remember which connection was used to reach each supplier at the lowest cost.
+        Edge[] previousEdge = new Edge[registry.size()];
         // Set the cost to reach the starting supplier (source) to 0.
-        minCost.put(source, 0);
+        minCost[sourceId] = 0;
 
         // Loop until all suppliers have been visitedSuppliers.
-        List<Transporter> allocatedTransPath = determineCheapestPath(graph, unvisitedSuppliers, minCost, previousEdge, source, destination);
+        List<Transporter> allocatedTransPath = determineCheapestPath(graph, minCost, previousEdge, sourceId, destinationId, minCapacity);
 
         // Return the list of transporters that form the cheapest path.
         return allocatedTransPath;
     }
 
+    /**
+     * Widest path: the path whose smallest remaining capacity
+     * (maxCapacity - allocation) is as large as possible.
+     * Among equally wide paths the cheapest one is returned.
+     * @param suppliers the suppliers
+     * @param transporters the transporters
+     * @param source the starting supplier
+     * @param destination the final supplier
+     * @return transporters of the widest path; empty if destination is unreachable
+     */
+    public static Collection<Transporter> widestPath(Collection<Supplier> suppliers,
+                                                     Collection<Transporter> transporters,
+                                                     Supplier source,
+                                                     Supplier destination) {
+        SupplierRegistry registry = network(suppliers, transporters);
+        int sourceId = registry.intern(source);
+        int destinationId = registry.intern(destination);
+        Graph graph = new Graph(registry.size());
+        for (Transporter transporter : transporters) {
+            graph.addCheapestPathEdge(transporter, registry.id(transporter.from()), registry.id(transporter.to()));
+        }
+        // Find the widest achievable bottleneck, then the cheapest path at least that wide
+        int width = determineWidestWidth(graph, sourceId, destinationId);
+        if (width <= 0 || sourceId == destinationId) return new ArrayList<>();
+        return cheapestPath(suppliers, transporters, source, destination, width);
+    }
+
     public static Collection<Transporter> allocateForDemand(Collection<Supplier> suppliers,
                                                             Collection<Transporter> transporters) {
 
-        // TODO-Complete: Return an empty collection if either suppliers or transporters is null
-        int surplus;
+        // TODO-Complete: Return an empty collection if either suppliers or transporters is null, stopping the method execution
+        if (suppliers == null || transporters == null) return new HashSet<>();
+        return allocateForDemand(SupplierRegistry.of(suppliers), transporters);
+    }
+
+    /**
+     * Allocate for demand using the demand and inventory held in a registry
+     * rather than in the supplier objects, so they can be changed by id
+     * between runs. Transporter endpoints missing from the registry are interned.
+     * Each transporter's allocation is the flow on its own edge, so parallel and
+     * opposite lanes are read separately.
+     * @param registry the suppliers of the network, with their demand and inventory
+     * @param transporters the transporters
+     * @return transporters that have an allocation along the max flow path
+     */
+    public static Collection<Transporter> allocateForDemand(SupplierRegistry registry,
+                                                            Collection<Transporter> transporters) {
         Collection<Transporter> allocation = new HashSet<>();
-        Supplier superSource = new Supplier("Super Source", 0, 0, 0, Integer.MAX_VALUE);
-        Supplier superSink = new Supplier("Super Sink", 0, 0, 0, Integer.MAX_VALUE);
+        if (registry == null || transporters == null) return allocation;
 
-        // TODO-Complete: Return an empty collection if either suppliers or transporters is null, stopping the method execution
-        if (suppliers == null || transporters == null) return allocation;
+        int suppliers = registry.size();
+        int[] surplus = new int[suppliers];
+        Graph graph = buildFlowGraph(registry, transporters, surplus);
+        int superSource = graph.size() - 2;
+        int superSink = graph.size() - 1;
 
-        // Initialize the graph and remaining demand map
-        Graph graph = new Graph();
-        Map<Supplier, Integer> surplusMap = new HashMap<>();
+        // TODO-Complete: Determine the max flow path and update the residual graph
+        while (findAugPath(graph, superSource, superSink, 0, Long.MAX_VALUE)) updateResidual(graph, superSink);
 
-        // Initialize surplus map
-        for (Supplier supplier : suppliers) {
-            surplus = supplier.inventory() - supplier.demand();
-            surplusMap.put(supplier, surplus);
+        // Set allocations for transporters from the flow on each one's own edge
+        int lane = 0;
+        for (Transporter transporter : transporters) {
+            transporter.setAllocation(graph.laneEdges[lane++].flow);
+            allocation.add(transporter);
         }
 
-        // TODO: Identify the source (manufacturer) and add a sink supplier(s) to the graph
-        graph.addSupplier(superSource);
-        graph.addSupplier(superSink);
+        // Redistribute surplus inventory from manufacturers or depots if there's any remaining capacity in the network
+        redistribSurp(suppliers, graph, surplus);
+
+        // Return transporters that have an allocation along the max flow path.
+        return allocation;
+    }
+
+    /**
+     * Anytime allocateForDemand: augments like allocateForDemand but stops
+     * when the time or augmentation budget is spent, keeping the flow found so
+     * far. The result carries a certified bound on how much more demand could
+     * be delivered (see {@link AnytimeAllocation}); the transporters get the
+     * result's allocations. The clock is checked between augmenting paths and
+     * every 1024 suppliers within one, and computing the bound after an early
+     * stop takes one more breadth-first pass.
+     * Each transporter's allocation is the flow on its own edge, so parallel and
+     * opposite lanes are read separately.
+     * @param suppliers the suppliers
+     * @param transporters the transporters; their allocations are set
+     * @param timeBudgetNanos time allowed for augmenting, in nanoseconds
+     * @param augmentationBudget most augmenting paths to apply
+     * @param snapshots if not null, called with the allocation after augmenting
+     *                  paths 1, 2, 4, 8, ... (each at least as good as the last)
+     * @return the allocation found, with its bound; empty if either collection is null
+     */
+    public static AnytimeAllocation allocateForDemand(Collection<Supplier> suppliers,
+                                                      Collection<Transporter> transporters,
+                                                      long timeBudgetNanos,
+                                                      long augmentationBudget,
+                                                      Consumer<AnytimeAllocation> snapshots) {
+        long start = System.nanoTime();
+        if (suppliers == null || transporters == null) {
+            return new AnytimeAllocation(new int[0], 0, 0, 0, true, 0, System.nanoTime() - start);
+        }
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        int[] surplus = new int[registry.size()];
+        Graph graph = buildFlowGraph(registry, transporters, surplus);
+        int superSource = graph.size() - 2;
+        int superSink = graph.size() - 1;
+        long totalDemand = 0;
+        for (int id = 0; id < surplus.length; id++) totalDemand += Math.max(0, registry.demand(id));
+
+        long delivered = 0;
+        long augmentations = 0;
+        long nextSnapshot = 1;
+        boolean optimal = false;
+        while (augmentations < augmentationBudget && System.nanoTime() - start < timeBudgetNanos) {
+            if (!findAugPath(graph, superSource, superSink, start, timeBudgetNanos)) {
+                // An interrupted search proves nothing; an exhausted one means the flow is maximum
+                optimal = !graph.interrupted;
+                break;
+            }
+            delivered += updateResidual(graph, superSink);
+            augmentations++;
+            if (snapshots != null && augmentations == nextSnapshot) {
+                snapshots.accept(anytimeResult(graph, delivered, totalDemand,
+                        false, augmentations, start));
+                nextSnapshot *= 2;
+            }
+        }
 
+        AnytimeAllocation result = anytimeResult(graph, delivered, totalDemand,
+                optimal, augmentations, start);
+        int lane = 0;
+        for (Transporter transporter : transporters) transporter.setAllocation(result.allocation(lane++));
+        return result;
+    }
+
+    /**
+     * Summarize an allocation in one pass with overflow-safe (long) totals:
+     * cost, units shipped, unmet demand per supplier, and lane utilization.
+     * Transporter endpoints not among the suppliers are counted as extra
+     * suppliers with no demand, as in allocateForDemand, so every lane is kept.
+     * @param suppliers the suppliers; unmet demand is indexed in iteration order
+     * @param transporters the transporters with their allocations
+     * @return the allocation summary
+     */
+    public static AllocationSummary summarize(Collection<Supplier> suppliers,
+                                              Collection<Transporter> transporters) {
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        int known = registry.size();
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+        int[] demand = new int[registry.size()];
+        for (int id = 0; id < known; id++) demand[id] = registry.demand(id);
+
+        // Flatten the transporters into lane arrays for the aggregation kernel
+        int lanes = 0;
+        int[] from = new int[transporters.size()];
+        int[] to = new int[transporters.size()];
+        int[] allocation = new int[transporters.size()];
+        int[] cost = new int[transporters.size()];
+        int[] capacity = new int[transporters.size()];
+        for (Transporter transporter : transporters) {
+            from[lanes] = registry.id(transporter.from());
+            to[lanes] = registry.id(transporter.to());
+            allocation[lanes] = transporter.allocation();
+            cost[lanes] = transporter.costPerUnit();
+            capacity[lanes++] = transporter.maxCapacity();
+        }
+        return AllocationSummary.ofLanes(demand, from, to, allocation, cost, capacity);
+    }
+    // ========= PRIMARY METHODS (ABOVE) =========
+
+    // ========= PRIVATE METHODS (BELOW) =========
+    // Registry of the suppliers followed by any transporter endpoints not among them.
+    private static SupplierRegistry network(Collection<Supplier> suppliers, Collection<Transporter> transporters) {
+        SupplierRegistry registry = SupplierRegistry.of(suppliers);
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+        return registry;
+    }
+
+    // Flow network of allocateForDemand: suppliers by id, then the super source and super sink.
+    private static Graph buildFlowGraph(SupplierRegistry registry, Collection<Transporter> transporters, int[] surplus) {
+        int suppliers = surplus.length;
+        for (Transporter transporter : transporters) {
+            registry.intern(transporter.from());
+            registry.intern(transporter.to());
+        }
+
+        // Initialize the graph; the super source and super sink take the two ids after the suppliers
+        Graph graph = new Graph(registry.size() + 2);
+        int superSource = registry.size();
+        int superSink = registry.size() + 1;
 
         // Create a relationship between suppliers and the super source and super sink
-        for (Supplier supplier : suppliers) {
-            graph.addSupplier(supplier);
-            if (supplier.demand() <= 0) {
+        for (int id = 0; id < suppliers; id++) {
+            surplus[id] = registry.inventory(id) - registry.demand(id);
+            if (registry.demand(id) <= 0) {
                 // TODO-Complete: Add an edge from the source to each supplier with a capacity equal to the supplier's demand and a cost of 0
-                graph.addEdge(superSource, supplier, surplusMap.get(supplier), 0); // Using surplus as capacity for manufacturers
+                graph.addEdge(superSource, id, surplus[id], 0); // Using surplus as capacity for manufacturers
             } else {
                 // TODO-Complete: Add an edge from each supplier to the sink with a capacity equal to the supplier's demand and a cost of 0
-                graph.addEdge(supplier, superSink, supplier.demand(), 0); // Using demand as capacity for distributors
+                graph.addEdge(id, superSink, registry.demand(id), 0); // Using demand as capacity for distributors
             }
         }
 
-        // Add transporters to the graph
+        // Add transporters to the graph, remembering each transporter's own edge
+        graph.laneEdges = new Edge[transporters.size()];
+        int lane = 0;
         for (Transporter transporter : transporters) {
-            graph.addEdge(transporter.from(), transporter.to(), transporter.maxCapacity(), transporter.costPerUnit());
+            Edge edge = graph.addEdge(registry.id(transporter.from()), registry.id(transporter.to()),
+                    transporter.maxCapacity(), transporter.costPerUnit());
+            edge.transporter = transporter;
+            graph.laneEdges[lane++] = edge;
         }
+        return graph;
+    }
 
-        // TODO-Complete: Determine the max flow path and update the residual graph
-        while (findAugPath(graph, superSource, superSink)) updateResidual(graph, superSink);
+    // Current allocations, read from each transporter's own forward edge, and the bound on what is left.
+    // A forward edge's flow stays within [0, capacity], so the allocation conserves units like the flow.
+    private static AnytimeAllocation anytimeResult(Graph graph, long delivered, long totalDemand,
+                                                   boolean optimal, long augmentations, long start) {
+        int[] allocation = new int[graph.laneEdges.length];
+        for (int lane = 0; lane < allocation.length; lane++) allocation[lane] = graph.laneEdges[lane].flow;
+        long bound = optimal ? 0 : layeredCutBound(graph, graph.size() - 2, graph.size() - 1);
+        return new AnytimeAllocation(allocation, delivered, totalDemand, bound,
+                optimal || bound == 0, augmentations, System.nanoTime() - start);
+    }
 
-        // Set allocations for transporters based on flow
-        for (Transporter transporter : transporters) {
-            Edge edge = graph.getEdge(transporter.from(), transporter.to());
-            if (edge != null) {
-                transporter.setAllocation(edge.flow);
-                allocation.add(transporter);
+    // Smallest residual capacity among the cuts between consecutive BFS layers from the source.
+    // Every residual edge goes at most one layer deeper, so each such cut separates source and sink.
+    private static long layeredCutBound(Graph graph, int source, int sink) {
+        int[] layer = new int[graph.size()];
+        Arrays.fill(layer, -1);
+        int[] queue = new int[graph.size()];
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        layer[source] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (Edge edge : graph.getEdgesFrom(current)) {
+                if (layer[edge.dest] >= 0 || edge.capacity - edge.flow <= 0) continue;
+                layer[edge.dest] = layer[current] + 1;
+                queue[tail++] = edge.dest;
             }
         }
-
-        // Redistribute surplus inventory from manufacturers or depots if there's any remaining capacity in the network
-        redistribSurp(suppliers, graph, surplusMap);
-
-        // Return transporters that have an allocation along the max flow path.
-        return allocation;
+        if (layer[sink] < 0) return 0;
+
+        long[] cut = new long[layer[sink]];
+        for (int i = 0; i < tail; i++) {
+            int u = queue[i];
+            if (layer[u] >= cut.length) continue;
+            for (Edge edge : graph.getEdgesFrom(u)) {
+                if (layer[edge.dest] == layer[u] + 1) cut[layer[u]] += edge.capacity - edge.flow;
+            }
+        }
+        long bound = Long.MAX_VALUE;
+        for (long c : cut) bound = Math.min(bound, c);
+        return bound;
     }
-    // ========= PRIMARY METHODS (ABOVE) =========
 
-    // ========= PRIVATE METHODS (BELOW) =========
-    private static void redistribSurp(Collection<Supplier> suppliers, Graph graph, Map<Supplier, Integer> surplusMap) {
-        int surplus, allocation;
-        for (Supplier supplier : suppliers) {
+    private static void redistribSurp(int suppliers, Graph graph, int[] surplus) {
+        int allocation;
+        for (int supplier = 0; supplier < suppliers; supplier++) {
             // TODO-Complete: Iterate through the edges of the current supplier and add the destination to the queue, and update the surplus map
-            if (surplusMap.get(supplier) > 0) {
+            if (surplus[supplier] > 0) {
                 for (Edge edge : graph.getEdgesFrom(supplier)) {
                     // Check if there's any remaining capacity in the network and redistribute surplus inventory
                     if (edge.capacity > edge.flow) {
-                        surplus = surplusMap.get(supplier);
-                        allocation = Math.min(surplus, edge.capacity - edge.flow);
+                        allocation = Math.min(surplus[supplier], edge.capacity - edge.flow);
                         edge.flow += allocation;
-                        surplusMap.put(supplier, surplus - allocation);
+                        surplus[supplier] -= allocation;
                     }
                 }
             }
@@ -145,92 +363,132 @@ public class SimpleAllocator {
 
     // TODO-Complete: This is a modified version of Dijkstra's algorithm - this method finds the cheapest path from the source to each supplier.
     private static List<Transporter> determineCheapestPath(Graph graph,
-                                                           Set<Supplier> unvisitedSuppliers,
-                                                           Map<Supplier, Integer> minCost,
-                                                           Map<Supplier, Edge> previousEdge,
-                                                           Supplier source, Supplier destination) {
-
-        // TODO-Complete: This list stores cheapest path from source -> destination
-        List<Transporter> cheapestTransPath = new ArrayList<>();
+                                                           long[] minCost,
+                                                           Edge[] previousEdge,
+                                                           int source, int destination,
+                                                           int minCapacity) {
 
         // Initialize a priority queue (typical impl for Dijkstra's) for selecting next supplier by the lowest known cost
-        PriorityQueue<Supplier> queue = new PriorityQueue<>(Comparator.comparing(minCost::get));
+        // Entries are {cost, supplier id} snapshots, so lowering a queued supplier's cost cannot break the heap order
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
         // Begin at the source supplier - then add the source to the priority queue
-        queue.add(source);
+        queue.add(new long[]{0, source});
 
         while (!queue.isEmpty()) {
             // Poll the next for the next supplier with the lowest known cost
-            Supplier current = queue.poll();
-            // Mark the current supplier as visitedSuppliers
-            unvisitedSuppliers.remove(current);
+            long[] next = queue.poll();
+            int current = (int) next[1];
+            // Skip entries made stale by a cheaper cost found later
+            if (next[0] > minCost[current]) continue;
             // Break loop if the current supplier is the destination
-            if (current.equals(destination)) break;
+            if (current == destination) break;
 
             // TODO-Complete: Verify that transporters (edges) that are connected to the current supplier
             for (Edge edge : graph.getEdgesFrom(current)) {
-                Supplier nextSupplier = edge.dest;
-                int newCost = minCost.get(current) + edge.cost; // Calculate new cost to next supplier
+                // Skip transporters without enough remaining capacity
+                if (edge.capacity - edge.flow < minCapacity) continue;
+                int nextSupplier = edge.dest;
+                // Calculate new cost to next supplier in long so large lane costs cannot wrap around
+                long newCost = minCost[current] + edge.cost;
 
                 // Update cost if the new cost is less than the current cost
-                if (newCost < minCost.get(nextSupplier)) {
+                if (newCost < minCost[nextSupplier]) {
                     // TODO-Complete: Update the cost to reach each supplier from the source
-                    minCost.put(nextSupplier, newCost);
+                    minCost[nextSupplier] = newCost;
                     // Update the path to the next supplier
-                    previousEdge.put(nextSupplier, edge);
+                    previousEdge[nextSupplier] = edge;
                     // Add the next supplier to the queue to be processed next in the loop
-                    queue.add(nextSupplier);
+                    queue.add(new long[]{newCost, nextSupplier});
                 }
             }
         }
 
-        // TODO-Complete: Rebuild path from the dest. back to the source
-        Supplier currentSupplier = destination;
+        // TODO-Complete: Return list of transporters that form the cheapest path from source -> destination
+        return rebuildPath(previousEdge, destination);
+    }
 
-        while (currentSupplier != null) {
-            // Get the edge leading to the current supplier
-            Edge edgeLeadingToCurrent = previousEdge.get(currentSupplier);
-            // If no edge leading to the current supplier, then exit the loop as we have reached the source
-            if (edgeLeadingToCurrent == null) break;
+    // Modified Dijkstra's that finds the largest achievable smallest remaining capacity (0 if unreachable).
+    private static int determineWidestWidth(Graph graph, int source, int destination) {
+        int[] width = new int[graph.size()];
+        boolean[] settled = new boolean[graph.size()];
+
+        // Queue entries are {width, supplier id} snapshots, so a supplier whose width improves is simply queued again
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(b[0], a[0]));
+        width[source] = Integer.MAX_VALUE;
+        queue.add(new int[]{Integer.MAX_VALUE, source});
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll()[1];
+            if (settled[current]) continue;
+            settled[current] = true;
+            if (current == destination) return width[current];
+
+            for (Edge edge : graph.getEdgesFrom(current)) {
+                int newWidth = Math.min(width[current], edge.capacity - edge.flow);
+                if (newWidth <= 0 || settled[edge.dest]) continue;
+                if (newWidth > width[edge.dest]) {
+                    width[edge.dest] = newWidth;
+                    queue.add(new int[]{newWidth, edge.dest});
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Follow previous edges from the destination back to the source.
+    private static List<Transporter> rebuildPath(Edge[] previousEdge, int destination) {
+        // TODO-Complete: This list stores cheapest path from source -> destination
+        List<Transporter> cheapestTransPath = new ArrayList<>();
+
+        // TODO-Complete: Rebuild path from the dest. back to the source
+        // If no edge leads to the current supplier, then we have reached the source
+        for (Edge edgeLeadingToCurrent = previousEdge[destination]; edgeLeadingToCurrent != null;
+             edgeLeadingToCurrent = previousEdge[edgeLeadingToCurrent.source]) {
             // Add the transporter to the path
-            Transporter transporterForEdge = graph.storeEdgeTransMap.get(edgeLeadingToCurrent);
-            cheapestTransPath.add(transporterForEdge);
-            // Move to the next supplier in the path
-            currentSupplier = edgeLeadingToCurrent.source;
+            cheapestTransPath.add(edgeLeadingToCurrent.transporter);
         }
 
         // Reverse the path to start from the source
         Collections.reverse(cheapestTransPath);
-        // TODO-Complete: Return list of transporters that form the cheapest path from source -> destination
         return cheapestTransPath;
     }
 
-    private static boolean findAugPath(Graph graph, Supplier source, Supplier sink) {
-        Set<Supplier> visitedSuppliers = new HashSet<>();
-        Queue<Supplier> queue = new LinkedList<>();
-        Map<Supplier, Edge> p_Map = new HashMap<>();
+    // Stops early (with graph.interrupted set) once budgetNanos have passed since start, checking every 1024
+    // suppliers; elapsed time is compared rather than a deadline, which could overflow.
+    private static boolean findAugPath(Graph graph, int source, int sink, long start, long budgetNanos) {
+        graph.interrupted = false;
+        boolean[] visitedSuppliers = new boolean[graph.size()];
+        // Each supplier is queued at most once, so the queue fits in one array
+        int[] queue = new int[graph.size()];
+        int head = 0, tail = 0;
+        Edge[] p_Map = new Edge[graph.size()];
 
         // Add the source and mark it as visitedSuppliers. reps. the starting point for the BFS.
-        queue.add(source);
-        visitedSuppliers.add(source);
+        queue[tail++] = source;
+        visitedSuppliers[source] = true;
 
-        while (!queue.isEmpty()) {
-            Supplier current = queue.remove();
+        while (head < tail) {
+            if ((head & 1023) == 1023 && System.nanoTime() - start >= budgetNanos) {
+                graph.interrupted = true;
+                return false;
+            }
+            int current = queue[head++];
 
             // TODO-Complete: Iterate through the edges of the current supplier and add the destination to the queue
             //  - if it has not been visitedSuppliers yet and the capacity - flow is greater than 0.
             for (Edge edge : graph.getEdgesFrom(current)) {
-                if (visitedSuppliers.contains(edge.dest) || edge.capacity - edge.flow <= 0) continue;
+                if (visitedSuppliers[edge.dest] || edge.capacity - edge.flow <= 0) continue;
 
-                visitedSuppliers.add(edge.dest);
-                p_Map.put(edge.dest, edge);
+                visitedSuppliers[edge.dest] = true;
+                p_Map[edge.dest] = edge;
 
-                if (edge.dest.equals(sink)) {
+                if (edge.dest == sink) {
                     // TODO-Complete: Set the parent map and return true if the sink is found
                     graph.setP_Map(p_Map);
                     return true;
                 }
 
-                queue.add(edge.dest);
+                queue[tail++] = edge.dest;
             }
         }
 
@@ -238,21 +496,19 @@ public class SimpleAllocator {
     }
 
     // TODO-Complete: This method updates the residual graph based on the max flow path.
-    private static void updateResidual(Graph graph, Supplier sink) {
+    // Returns the units pushed along the path.
+    private static int updateResidual(Graph graph, int sink) {
         // TODO-Complete: Get the parent map from the graph
-        Map<Supplier, Edge> p_Map = graph.getP_Map();
+        Edge[] p_Map = graph.getP_Map();
         // List of edges in the path and store the min flow.
         List<Edge> pathEdges = new ArrayList<>();
         int minFlow = Integer.MAX_VALUE;
 
         // Compute the minimum flow and store the edges in the path
-        Supplier current = sink;
-        while (p_Map.containsKey(current)) {
-            Edge edge = p_Map.get(current);
+        for (Edge edge = p_Map[sink]; edge != null; edge = p_Map[edge.source]) {
             minFlow = Math.min(minFlow, edge.capacity - edge.flow);
             // Add edge for updating the flow later on.
             pathEdges.add(edge);
-            current = edge.source;
         }
 
         // Take the edge and update the flow in the forward and reverse edges.
@@ -260,34 +516,38 @@ public class SimpleAllocator {
             edge.flow += minFlow; // Increase flow in forward edge
             edge.reverseEdge.flow -= minFlow; // Reduction of the flow in reverse edge
         }
+        return minFlow;
     }
 
-    // Private static inner class Graph
+    // Private static inner class Graph, indexed by supplier id
     private static class Graph {
-        private final Map<Supplier, List<Edge>> adjacencyList;
-        private final Map<Edge, Transporter> storeEdgeTransMap;
-        private Map<Supplier, Edge> p_Map;
-
-        private Graph() {
-            adjacencyList = new HashMap<>();
-            p_Map = new HashMap<>();
-            storeEdgeTransMap = new HashMap<>();
+        private final List<List<Edge>> adjacencyList;
+        private Edge[] p_Map;
+        // Set when the last augmenting path search ran out of time
+        private boolean interrupted;
+        // Forward edge of each transporter, in iteration order (flow graphs only)
+        private Edge[] laneEdges;
+
+        private Graph(int suppliers) {
+            adjacencyList = new ArrayList<>(suppliers);
+            for (int id = 0; id < suppliers; id++) adjacencyList.add(new ArrayList<>());
+            p_Map = new Edge[suppliers];
         }
 
-        private void addSupplier(Supplier supplier) {
-            adjacencyList.putIfAbsent(supplier, new ArrayList<>());
+        private int size() {
+            return adjacencyList.size();
         }
 
         // add edge for cheapest path algorithm (Modified Dijkstra's)
-        private void addCheapestPathEdge(Transporter transporter) {
-            this.adjacencyList.putIfAbsent(transporter.from(), new ArrayList<>());
-            Edge edge = new Edge(transporter.from(), transporter.to(), transporter.maxCapacity(), transporter.costPerUnit());
-            this.adjacencyList.get(transporter.from()).add(edge);
-            this.storeEdgeTransMap.put(edge, transporter); // Storing the transporter corresponding to the edge
+        private void addCheapestPathEdge(Transporter transporter, int source, int dest) {
+            Edge edge = new Edge(source, dest, transporter.maxCapacity(), transporter.costPerUnit());
+            edge.flow = transporter.allocation(); // Remaining capacity is capacity - flow
+            edge.transporter = transporter; // Storing the transporter corresponding to the edge
+            this.adjacencyList.get(source).add(edge);
         }
 
-        // add edge for ford-fulkerson algorithm
-        private void addEdge(Supplier source, Supplier dest, int capacity, int cost) {
+        // add edge for ford-fulkerson algorithm; returns the forward edge
+        private Edge addEdge(int source, int dest, int capacity, int cost) {
             Edge edge = new Edge(source, dest, capacity, cost);
             Edge reverseEdge = new Edge(dest, source, 0, -cost);
 
@@ -299,40 +559,33 @@ public class SimpleAllocator {
             adjacencyList.get(source).add(edge);
             // TODO-Complete: Add the reverse edge to the adjacency list
             adjacencyList.get(dest).add(reverseEdge);
+            return edge;
         }
 
-        private Edge getEdge(Supplier source, Supplier dest) {
-            for (Edge edge : adjacencyList.get(source)) {
-                if (edge.dest.equals(dest)) {
-                    return edge;
-                }
-            }
-            return null;
-        }
-
-        private List<Edge> getEdgesFrom(Supplier source) {
-            return adjacencyList.getOrDefault(source, new ArrayList<>());
+        private List<Edge> getEdgesFrom(int source) {
+            return adjacencyList.get(source);
         }
 
-        private void setP_Map(Map<Supplier, Edge> p_Map) {
+        private void setP_Map(Edge[] p_Map) {
             this.p_Map = p_Map;
         }
 
-        private Map<Supplier, Edge> getP_Map() {
+        private Edge[] getP_Map() {
             return this.p_Map;
         }
     }
 
-    // Private static inner class Edge
+    // Private static inner class Edge; endpoints are supplier ids
     private static class Edge {
-        private final Supplier source;
-        private final Supplier dest;
+        private final int source;
+        private final int dest;
         private final int capacity;
         private final int cost;
         private int flow;
         private Edge reverseEdge;
+        private Transporter transporter;
 
-        private Edge(Supplier source, Supplier dest, int capacity, int cost) {
+        private Edge(int source, int dest, int capacity, int cost) {
             this.source = source;
             this.dest = dest;
             this.capacity = capacity;
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Network-scoped registry that interns each supplier to a dense int id.
+ * -
+ * Suppliers are interned by identity, not by {@link Supplier#equals}, so the
+ * lookup uses the JVM's cached identity hash instead of rehashing the name,
+ * and a supplier that is mutated (for example by {@link Supplier#restore})
+ * keeps its id. Demand and inventory are copied into primitive side arrays
+ * when a supplier is interned; allocators read them from here, and they can
+ * be updated by id without touching any map or graph keyed by the supplier.
+ * -
+ * @author CS4050
+ * @version 20261019
+ */
+public final class SupplierRegistry {
+    private final Map<Supplier, Integer> ids = new IdentityHashMap<>();
+    private Supplier[] suppliers;
+    private int[] demand;
+    private int[] inventory;
+    private int size;
+
+    /** Construct an empty registry. */
+    public SupplierRegistry() {
+        this(16);
+    }
+
+    private SupplierRegistry(int capacity) {
+        suppliers = new Supplier[Math.max(capacity, 1)];
+        demand = new int[suppliers.length];
+        inventory = new int[suppliers.length];
+    }
+
+    /**
+     * Build a registry with ids in the iteration order of the suppliers.
+     * @param suppliers the suppliers
+     * @return the registry
+     */
+    public static SupplierRegistry of(Collection<Supplier> suppliers) {
+        SupplierRegistry registry = new SupplierRegistry(suppliers.size() + 2);
+        for (Supplier supplier : suppliers) registry.intern(supplier);
+        return registry;
+    }
+
+    /**
+     * Return the id of a supplier, registering it (and snapshotting its
+     * demand and inventory) if it is new.
+     * @param supplier the supplier
+     * @return the supplier's id
+     */
+    public int intern(Supplier supplier) {
+        Integer id = ids.get(supplier);
+        if (id != null) return id;
+        if (size == suppliers.length) {
+            suppliers = Arrays.copyOf(suppliers, size * 2);
+            demand = Arrays.copyOf(demand, size * 2);
+            inventory = Arrays.copyOf(inventory, size * 2);
+        }
+        suppliers[size] = supplier;
+        demand[size] = supplier.demand();
+        inventory[size] = supplier.inventory();
+        ids.put(supplier, size);
+        return size++;
+    }
+
+    /**
+     * @param supplier the supplier
+     * @return the supplier's id, or -1 if it is not registered
+     */
+    public int id(Supplier supplier) {
+        Integer id = ids.get(supplier);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id a supplier id
+     * @return the supplier with that id
+     */
+    public Supplier supplier(int id) { return suppliers[check(id)]; }
+
+    /**
+     * @return number of registered suppliers (ids are 0 .. size - 1)
+     */
+    public int size() { return size; }
+
+    /**
+     * @param id a supplier id
+     * @return the registered demand of that supplier
+     */
+    public int demand(int id) { return demand[check(id)]; }
+
+    /**
+     * @param id a supplier id
+     * @return the registered inventory of that supplier
+     */
+    public int inventory(int id) { return inventory[check(id)]; }
+
+    /**
+     * Update the registered demand of a supplier.
+     * @param id a supplier id
+     * @param units the new demand
+     */
+    public void setDemand(int id, int units) { demand[check(id)] = units; }
+
+    /**
+     * Update the registered inventory of a supplier.
+     * @param id a supplier id
+     * @param units the new inventory
+     */
+    public void setInventory(int id, int units) { inventory[check(id)] = units; }
+
+    /**
+     * Copy demand and inventory from the supplier object again,
+     * for example after it was restored from a file.
+     * @param id a supplier id
+     */
+    public void refresh(int id) {
+        demand[check(id)] = suppliers[id].demand();
+        inventory[id] = suppliers[id].inventory();
+    }
+
+    private int check(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("supplier id " + id);
+        return id;
+    }
+}